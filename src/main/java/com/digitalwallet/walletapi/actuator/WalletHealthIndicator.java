@@ -1,50 +1,90 @@
 package com.digitalwallet.walletapi.actuator;
 
-import com.digitalwallet.walletapi.repository.WalletRepository;
-import com.digitalwallet.walletapi.repository.CustomerRepository;
-import com.digitalwallet.walletapi.repository.TransactionRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Readiness of the database, kept cheap enough to be probed every few seconds.
+ *
+ * A saturated connection pool reports OUT_OF_SERVICE without borrowing, so the probe
+ * never queues behind requests. Otherwise one connection is borrowed and validated;
+ * a round trip slower than the latency budget also reports OUT_OF_SERVICE. Row
+ * counts are served by the employee-only walletstats endpoint instead.
+ */
 @Component("wallet")
 @RequiredArgsConstructor
 @Slf4j
 public class WalletHealthIndicator implements HealthIndicator {
 
-    private final WalletRepository walletRepository;
-    private final CustomerRepository customerRepository;
-    private final TransactionRepository transactionRepository;
+    private final DataSource dataSource;
+
+    @Value("${wallet.health.latency-budget-ms:250}")
+    private long latencyBudgetMs = 250;
 
     @Override
     public Health health() {
-        try {
-            // Check database connectivity and basic operations
-            long customerCount = customerRepository.count();
-            long walletCount = walletRepository.count();
-            long transactionCount = transactionRepository.count();
-            
-            log.debug("Health check - Customers: {}, Wallets: {}, Transactions: {}", 
-                     customerCount, walletCount, transactionCount);
-            
-            return Health.up()
-                    .withDetail("database", "UP")
-                    .withDetail("customers", customerCount)
-                    .withDetail("wallets", walletCount)
-                    .withDetail("transactions", transactionCount)
-                    .withDetail("service", "Wallet API is healthy")
+        HikariPoolMXBean pool = poolOf(dataSource);
+        if (pool != null && pool.getIdleConnections() == 0 && pool.getThreadsAwaitingConnection() > 0) {
+            return withPool(Health.outOfService(), pool)
+                    .withDetail("database", "SATURATED")
                     .build();
-                    
-        } catch (Exception e) {
+        }
+
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            int timeoutSeconds = (int) Math.max(1, (latencyBudgetMs + 999) / 1000);
+            if (!connection.isValid(timeoutSeconds)) {
+                return Health.down().withDetail("database", "DOWN").build();
+            }
+        } catch (SQLException e) {
             log.error("Health check failed", e);
-            
             return Health.down()
                     .withDetail("database", "DOWN")
                     .withDetail("error", e.getMessage())
-                    .withDetail("service", "Wallet API is unhealthy")
                     .build();
         }
+        long latencyMs = (System.nanoTime() - started) / 1_000_000;
+
+        Health.Builder builder = latencyMs > latencyBudgetMs ? Health.outOfService() : Health.up();
+        return withPool(builder, pool)
+                .withDetail("database", latencyMs > latencyBudgetMs ? "SLOW" : "UP")
+                .withDetail("latencyMs", latencyMs)
+                .withDetail("latencyBudgetMs", latencyBudgetMs)
+                .build();
+    }
+
+    private static Health.Builder withPool(Health.Builder builder, HikariPoolMXBean pool) {
+        if (pool != null) {
+            builder.withDetail("pool", Map.of(
+                    "active", pool.getActiveConnections(),
+                    "idle", pool.getIdleConnections(),
+                    "total", pool.getTotalConnections(),
+                    "awaiting", pool.getThreadsAwaitingConnection()));
+        }
+        return builder;
+    }
+
+    /**
+     * The Hikari pool behind the data source, or null when it is not Hikari or not started yet
+     */
+    private static HikariPoolMXBean poolOf(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean()
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,7 @@
 package com.digitalwallet.walletapi.actuator;
 
-import com.digitalwallet.walletapi.repository.WalletRepository;
-import com.digitalwallet.walletapi.repository.CustomerRepository;
-import com.digitalwallet.walletapi.repository.TransactionRepository;
 import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.stats.WalletStatistics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.actuate.info.Info;
 import org.springframework.boot.actuate.info.InfoContributor;
@@ -12,13 +10,14 @@ import org.springframework.stereotype.Component;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Wallet statistics for /actuator/info, read from the in-memory counts rather than the database
+ */
 @Component
 @RequiredArgsConstructor
 public class WalletInfoContributor implements InfoContributor {
 
-    private final WalletRepository walletRepository;
-    private final CustomerRepository customerRepository;
-    private final TransactionRepository transactionRepository;
+    private final WalletStatistics walletStatistics;
 
     @Override
     public void contribute(Info.Builder builder) {
@@ -26,15 +25,14 @@ public class WalletInfoContributor implements InfoContributor {
             Map<String, Object> walletDetails = new HashMap<>();
 
             // Basic statistics
-            walletDetails.put("totalCustomers", customerRepository.count());
-            walletDetails.put("totalWallets", walletRepository.count());
-            walletDetails.put("totalTransactions", transactionRepository.count());
+            walletDetails.put("totalCustomers", walletStatistics.getCustomers());
+            walletDetails.put("totalWallets", walletStatistics.getWallets());
+            walletDetails.put("totalTransactions", walletStatistics.getTransactions());
 
             // Transaction statistics by status
             Map<String, Object> transactionStats = new HashMap<>();
             for (TransactionStatus status : TransactionStatus.values()) {
-                long count = transactionRepository.findByWalletIdAndStatus(null, status).size();
-                transactionStats.put(status.name().toLowerCase(), count);
+                transactionStats.put(status.name().toLowerCase(), walletStatistics.getTransactions(status));
             }
             walletDetails.put("transactionsByStatus", transactionStats);
 
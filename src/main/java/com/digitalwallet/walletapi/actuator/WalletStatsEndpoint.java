@@ -0,0 +1,39 @@
+package com.digitalwallet.walletapi.actuator;
+
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.stats.WalletStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Row counts at /actuator/walletstats, for employees. Served from the in-memory
+ * counts, so it is as cheap as the health probes it was moved out of.
+ */
+@Component
+@Endpoint(id = "walletstats")
+@RequiredArgsConstructor
+public class WalletStatsEndpoint {
+
+    private final WalletStatistics walletStatistics;
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> transactionsByStatus = new LinkedHashMap<>();
+        for (TransactionStatus status : TransactionStatus.values()) {
+            transactionsByStatus.put(status.name().toLowerCase(), walletStatistics.getTransactions(status));
+        }
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("customers", walletStatistics.getCustomers());
+        statistics.put("wallets", walletStatistics.getWallets());
+        statistics.put("transactions", walletStatistics.getTransactions());
+        statistics.put("transactionsByStatus", transactionsByStatus);
+        statistics.put("secondsSinceReconcile", walletStatistics.getSecondsSinceReconcile());
+        return statistics;
+    }
+}
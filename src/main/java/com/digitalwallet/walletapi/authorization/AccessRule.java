@@ -0,0 +1,40 @@
+package com.digitalwallet.walletapi.authorization;
+
+import com.digitalwallet.walletapi.service.AuthorizationService;
+
+import java.util.Collection;
+
+/**
+ * What a caller must be to invoke an {@link Authorize} method. Employees pass every
+ * rule; for anyone else the rule's {@link AuthorizationService} check decides, given
+ * the value found at the annotation's target.
+ */
+public enum AccessRule {
+    /** Employees only */
+    EMPLOYEE(null, null),
+    /** The customer whose ID is the target */
+    ACCOUNT_OWNER("isAccountOwner", Long.class),
+    /** The owner of the wallet whose ID is the target */
+    WALLET_OWNER("isWalletOwner", Long.class),
+    /** The owner of every wallet in the target collection of IDs */
+    WALLET_OWNER_OF_ALL("isWalletOwnerOfAll", Collection.class);
+
+    private final String check;
+    private final Class<?> targetType;
+
+    AccessRule(String check, Class<?> targetType) {
+        this.check = check;
+        this.targetType = targetType;
+    }
+
+    /**
+     * Name of the {@link AuthorizationService} method deciding for non-employees, or null when they are always denied
+     */
+    String getCheck() {
+        return check;
+    }
+
+    Class<?> getTargetType() {
+        return targetType;
+    }
+}
@@ -0,0 +1,164 @@
+package com.digitalwallet.walletapi.authorization;
+
+import com.digitalwallet.walletapi.jwt.CustomUserDetails;
+import com.digitalwallet.walletapi.service.AuthorizationService;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Compiled {@link Authorize} rules of the controller methods.
+ *
+ * Once every singleton exists, each rule is turned into one method handle that
+ * takes the invocation's arguments, reads the target parameter and property path
+ * with direct getter handles and passes the value to the rule's
+ * {@link AuthorizationService} check. A target that names no parameter or property,
+ * or has the wrong type, fails startup instead of the first request. A call then
+ * costs a role-mask test, which lets employees through, and one handle invocation.
+ */
+@Component
+@Slf4j
+public class AuthorizationRules implements SmartInitializingSingleton {
+
+    private static final MethodHandle DENY = MethodHandles.dropArguments(
+            MethodHandles.constant(boolean.class, false), 0, Object[].class);
+
+    private final ApplicationContext applicationContext;
+    private final AuthorizationService authorizationService;
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<Method, MethodHandle> rules = new ConcurrentHashMap<>();
+
+    public AuthorizationRules(ApplicationContext applicationContext, AuthorizationService authorizationService) {
+        this.applicationContext = applicationContext;
+        this.authorizationService = authorizationService;
+    }
+
+    /**
+     * Compile the rules of every controller method annotated with {@link Authorize}
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Object controller : applicationContext.getBeansWithAnnotation(Controller.class).values()) {
+            MethodIntrospector.selectMethods(AopUtils.getTargetClass(controller),
+                            (MethodIntrospector.MetadataLookup<Authorize>) method ->
+                                    AnnotatedElementUtils.findMergedAnnotation(method, Authorize.class))
+                    .keySet()
+                    .forEach(method -> rules.put(method, compile(method)));
+        }
+        log.info("Compiled {} authorization rules", rules.size());
+    }
+
+    /**
+     * Decide an intercepted controller call
+     */
+    public AuthorizationDecision authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return new AuthorizationDecision(isGranted(authentication.get(), invocation.getMethod(), invocation.getArguments()));
+    }
+
+    /**
+     * Whether the authenticated user may call the method with these arguments
+     */
+    public boolean isGranted(Authentication authentication, Method method, Object[] arguments) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails user)) {
+            return false;
+        }
+        if (user.isEmployee()) {
+            return true;
+        }
+
+        // Methods first seen here, e.g. on a class the startup scan did not cover, are compiled once
+        MethodHandle rule = rules.computeIfAbsent(method, this::compile);
+        try {
+            return (boolean) rule.invokeExact(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot evaluate the authorization rule of " + method, e);
+        }
+    }
+
+    private MethodHandle compile(Method method) {
+        Authorize authorize = AnnotatedElementUtils.findMergedAnnotation(method, Authorize.class);
+        if (authorize == null) {
+            throw new IllegalStateException("No @Authorize rule on " + method);
+        }
+        AccessRule rule = authorize.value();
+        if (rule.getCheck() == null) {
+            return DENY;
+        }
+
+        try {
+            MethodHandle check = MethodHandles.publicLookup()
+                    .findVirtual(AuthorizationService.class, rule.getCheck(),
+                            MethodType.methodType(boolean.class, rule.getTargetType()))
+                    .bindTo(authorizationService);
+            return MethodHandles.filterArguments(check, 0, targetReader(method, authorize.target(), rule.getTargetType()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot compile the authorization rule of " + method, e);
+        }
+    }
+
+    /**
+     * Handle reading the rule's target out of the argument array
+     */
+    private MethodHandle targetReader(Method method, String target, Class<?> targetType) throws IllegalAccessException {
+        String[] path = target.split("\\.");
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+        int index = parameterNames == null ? -1 : Arrays.asList(parameterNames).indexOf(path[0]);
+        if (index < 0) {
+            throw new IllegalStateException("@Authorize target '" + target + "' names no parameter of " + method);
+        }
+
+        Class<?> type = method.getParameterTypes()[index];
+        MethodHandle reader = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(Object[].class), 1, index)
+                .asType(MethodType.methodType(type, Object[].class));
+        for (int i = 1; i < path.length; i++) {
+            Method property = propertyReader(type, path[i]);
+            if (property == null) {
+                throw new IllegalStateException("@Authorize target '" + target + "' of " + method
+                        + " names no readable property '" + path[i] + "' of " + type.getName());
+            }
+            reader = MethodHandles.filterReturnValue(reader, MethodHandles.publicLookup().unreflect(property));
+            type = property.getReturnType();
+        }
+
+        if (!ClassUtils.isAssignable(targetType, type)) {
+            throw new IllegalStateException("@Authorize target '" + target + "' of " + method
+                    + " is a " + type.getName() + ", not a " + targetType.getName());
+        }
+        return reader.asType(MethodType.methodType(targetType, Object[].class));
+    }
+
+    /**
+     * Getter of a bean property, or a public no-argument method of that name such as {@code walletIds()}
+     */
+    private static Method propertyReader(Class<?> type, String name) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, name);
+        if (descriptor != null && descriptor.getReadMethod() != null) {
+            return descriptor.getReadMethod();
+        }
+        return ClassUtils.getMethodIfAvailable(type, name);
+    }
+}
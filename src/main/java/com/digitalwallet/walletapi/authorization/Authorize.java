@@ -0,0 +1,26 @@
+package com.digitalwallet.walletapi.authorization;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a controller method to the callers its {@link AccessRule} allows. The
+ * rule is compiled into method handles when the application starts, so a call
+ * only reads the caller's role mask and invokes the compiled check.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Authorize {
+
+    AccessRule value();
+
+    /**
+     * Parameter holding the value the rule checks, optionally followed by a property
+     * path into it, e.g. "walletId" or "request.fromWalletId". Unused by {@link AccessRule#EMPLOYEE}.
+     */
+    String target() default "";
+}
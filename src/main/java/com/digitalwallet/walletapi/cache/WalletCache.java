@@ -0,0 +1,255 @@
+package com.digitalwallet.walletapi.cache;
+
+import com.digitalwallet.walletapi.entity.Customer;
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Wallet snapshots for the read endpoints, held in bounded Caffeine caches so that
+ * polling clients do not reach the database. Snapshots are cached by wallet ID, and
+ * the wallet IDs of each customer by customer ID.
+ *
+ * Every path that changes a wallet's balances evicts the wallet once its transaction
+ * commits, and creating a wallet evicts its customer's IDs, so readers never see
+ * uncommitted state. A read that loaded before such a commit must not put the old
+ * state back afterwards: each eviction moves a generation counter for its key, and a
+ * load whose counter moved while it ran drops what it put. The expiry bounds how long
+ * a change made on another instance stays invisible to readers that do not first
+ * compare the cache with a revision read from the database.
+ *
+ * Snapshots are detached copies shared between readers, which must not modify them.
+ */
+@Component
+public class WalletCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLongArray walletGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLongArray customerGenerations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Value("${wallet.cache.max-size:100000}")
+    private long maxSize = 100_000;
+
+    @Value("${wallet.cache.ttl-seconds:30}")
+    private long ttlSeconds = 30;
+
+    private Cache<Long, Wallet> wallets;
+    private Cache<Long, List<Long>> customerWalletIds;
+
+    public WalletCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        wallets = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        customerWalletIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        register(wallets, "wallets");
+        register(customerWalletIds, "customerWallets");
+    }
+
+    /**
+     * Snapshot of a wallet, loaded and cached on a miss. Wallets the loader does not find are not cached.
+     */
+    public Optional<Wallet> getWallet(Long walletId, Function<Long, Optional<Wallet>> loader) {
+        Wallet cached = wallets.getIfPresent(walletId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long generation = walletGenerations.get(stripe(walletId));
+        Optional<Wallet> loaded = loader.apply(walletId).map(WalletCache::snapshot);
+        loaded.ifPresent(wallet -> putWallet(wallet, generation));
+        return loaded;
+    }
+
+    /**
+     * Snapshots of the given wallets in the given order. The missing ones are loaded
+     * together; IDs the loader does not return are left out.
+     */
+    public List<Wallet> getWallets(List<Long> walletIds, Function<Collection<Long>, List<Wallet>> loader) {
+        Map<Long, Wallet> found = new HashMap<>(wallets.getAllPresent(walletIds));
+        if (found.size() < walletIds.size()) {
+            Map<Long, Long> generations = new HashMap<>();
+            for (Long walletId : walletIds) {
+                if (!found.containsKey(walletId)) {
+                    generations.put(walletId, walletGenerations.get(stripe(walletId)));
+                }
+            }
+            for (Wallet wallet : loader.apply(generations.keySet())) {
+                Wallet snapshot = snapshot(wallet);
+                putWallet(snapshot, generations.get(snapshot.getId()));
+                found.put(snapshot.getId(), snapshot);
+            }
+        }
+
+        List<Wallet> ordered = new ArrayList<>(walletIds.size());
+        for (Long walletId : walletIds) {
+            Wallet wallet = found.get(walletId);
+            if (wallet != null) {
+                ordered.add(wallet);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * IDs of a customer's wallets, loaded and cached on a miss
+     */
+    public List<Long> getWalletIds(Long customerId, Function<Long, List<Long>> loader) {
+        List<Long> cached = customerWalletIds.getIfPresent(customerId);
+        if (cached != null) {
+            return cached;
+        }
+
+        int stripe = stripe(customerId);
+        long generation = customerGenerations.get(stripe);
+        List<Long> loaded = List.copyOf(loader.apply(customerId));
+        customerWalletIds.put(customerId, loaded);
+        if (customerGenerations.get(stripe) != generation) {
+            customerWalletIds.invalidate(customerId);
+        }
+        return loaded;
+    }
+
+    /**
+     * Evict a wallet once the current transaction, if any, commits
+     */
+    public void evictWallet(Long walletId) {
+        afterCommit(() -> invalidateWallet(walletId));
+    }
+
+    public void evictWallets(Collection<Long> walletIds) {
+        walletIds.forEach(this::evictWallet);
+    }
+
+    /**
+     * Evict a customer's wallet IDs once the current transaction, if any, commits
+     */
+    public void evictCustomer(Long customerId) {
+        afterCommit(() -> invalidateCustomer(customerId));
+    }
+
+    /**
+     * Evict at once the snapshots that no longer match revisions just read from the
+     * database (an ID, version and outstanding amounts), such as wallets changed on
+     * another instance, so that a response is never older than the ETag it was sent with
+     */
+    public void evictStale(List<Wallet> revisions) {
+        for (Wallet revision : revisions) {
+            Wallet cached = wallets.getIfPresent(revision.getId());
+            if (cached != null && !sameRevision(cached, revision)) {
+                invalidateWallet(revision.getId());
+            }
+        }
+    }
+
+    /**
+     * Evict at once a customer's wallet IDs when they differ from IDs just read from the database
+     */
+    public void evictStaleIds(Long customerId, List<Long> walletIds) {
+        List<Long> cached = customerWalletIds.getIfPresent(customerId);
+        if (cached != null && !cached.equals(walletIds)) {
+            invalidateCustomer(customerId);
+        }
+    }
+
+    private void invalidateWallet(Long walletId) {
+        walletGenerations.incrementAndGet(stripe(walletId));
+        wallets.invalidate(walletId);
+    }
+
+    private void invalidateCustomer(Long customerId) {
+        customerGenerations.incrementAndGet(stripe(customerId));
+        customerWalletIds.invalidate(customerId);
+    }
+
+    private static boolean sameRevision(Wallet cached, Wallet revision) {
+        return Objects.equals(cached.getVersion(), revision.getVersion())
+                && cached.getOutstandingBalance() == revision.getOutstandingBalance()
+                && cached.getOutstandingUsableBalance() == revision.getOutstandingUsableBalance();
+    }
+
+    private void putWallet(Wallet snapshot, long generation) {
+        wallets.put(snapshot.getId(), snapshot);
+        if (walletGenerations.get(stripe(snapshot.getId())) != generation) {
+            wallets.invalidate(snapshot.getId());
+        }
+    }
+
+    /**
+     * Detached copy of a loaded wallet, with its customer reduced to the ID
+     */
+    private static Wallet snapshot(Wallet wallet) {
+        return Wallet.builder()
+                .id(wallet.getId())
+                .customer(Customer.builder().id(wallet.getCustomer().getId()).build())
+                .walletName(wallet.getWalletName())
+                .currency(wallet.getCurrency())
+                .activeForShopping(wallet.getActiveForShopping())
+                .activeForWithdraw(wallet.getActiveForWithdraw())
+                .balance(wallet.getBalance())
+                .usableBalance(wallet.getUsableBalance())
+                .stripeCount(wallet.getStripeCount())
+                .outstandingBalance(wallet.getOutstandingBalance())
+                .outstandingUsableBalance(wallet.getOutstandingUsableBalance())
+                .createdAt(wallet.getCreatedAt())
+                .version(wallet.getVersion())
+                .build();
+    }
+
+    private void register(Cache<Long, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("wallet.cache.hit.ratio", cache, monitored -> monitored.stats().hitRate())
+                .description("Share of lookups answered from the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private static int stripe(Long key) {
+        return Long.hashCode(key * 0x9E3779B97F4A7C15L) & (GENERATION_STRIPES - 1);
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
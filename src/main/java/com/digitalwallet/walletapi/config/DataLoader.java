@@ -5,6 +5,7 @@ import com.digitalwallet.walletapi.entity.Employee;
 import com.digitalwallet.walletapi.entity.Transaction;
 import com.digitalwallet.walletapi.entity.Wallet;
 import com.digitalwallet.walletapi.enums.*;
+import com.digitalwallet.walletapi.money.Money;
 import com.digitalwallet.walletapi.repository.CustomerRepository;
 import com.digitalwallet.walletapi.repository.EmployeeRepository;
 import com.digitalwallet.walletapi.repository.TransactionRepository;
@@ -15,6 +16,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 
 @Component
@@ -30,11 +32,13 @@ public class DataLoader implements CommandLineRunner {
     private final PasswordEncoder passwordEncoder;
 
     /**
-     * Load sample data on application startup
+     * Load sample data on application startup. Runs in one transaction so the
+     * inserts are flushed together as JDBC batches.
      * 
      * @param args command line arguments
      */
     @Override
+    @Transactional
     public void run(String... args) {
         log.info("Loading sample data...");
         
@@ -149,8 +153,8 @@ public class DataLoader implements CommandLineRunner {
                 .currency(currency)
                 .activeForShopping(activeForShopping)
                 .activeForWithdraw(activeForWithdraw)
-                .balance(balance)
-                .usableBalance(balance)
+                .balance(Money.toMinorUnits(balance))
+                .usableBalance(Money.toMinorUnits(balance))
                 .build();
         return walletRepository.save(wallet);
     }
@@ -163,7 +167,7 @@ public class DataLoader implements CommandLineRunner {
                                         TransactionStatus status) {
         Transaction transaction = Transaction.builder()
                 .wallet(wallet)
-                .amount(amount)
+                .amount(Money.toMinorUnits(amount))
                 .type(type)
                 .oppositePartyType(oppositePartyType)
                 .oppositeParty(oppositeParty)
@@ -2,63 +2,47 @@ package com.digitalwallet.walletapi.config;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Gauge;
-import com.digitalwallet.walletapi.repository.WalletRepository;
-import com.digitalwallet.walletapi.repository.CustomerRepository;
-import com.digitalwallet.walletapi.repository.TransactionRepository;
+import com.digitalwallet.walletapi.stats.WalletStatistics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
 
+/**
+ * Row count gauges. They read the in-memory counts of {@link WalletStatistics}, so a
+ * scrape never queries the database.
+ */
 @Configuration
 @RequiredArgsConstructor
 public class MetricsConfig {
 
-    private final WalletRepository walletRepository;
-    private final CustomerRepository customerRepository;
-    private final TransactionRepository transactionRepository;
+    private final WalletStatistics walletStatistics;
 
     @Bean
     public Gauge walletCountGauge(MeterRegistry registry) {
-        return Gauge.builder("wallet.count", this, MetricsConfig::getWalletCount)
+        return Gauge.builder("wallet.count", walletStatistics, WalletStatistics::getWallets)
                 .description("Total number of wallets")
                 .register(registry);
     }
 
     @Bean
     public Gauge customerCountGauge(MeterRegistry registry) {
-        return Gauge.builder("customer.count", this, MetricsConfig::getCustomerCount)
+        return Gauge.builder("customer.count", walletStatistics, WalletStatistics::getCustomers)
                 .description("Total number of customers")
                 .register(registry);
     }
 
     @Bean
     public Gauge transactionCountGauge(MeterRegistry registry) {
-        return Gauge.builder("transaction.count", this, MetricsConfig::getTransactionCount)
+        return Gauge.builder("transaction.count", walletStatistics, WalletStatistics::getTransactions)
                 .description("Total number of transactions")
                 .register(registry);
     }
 
-    private double getWalletCount() {
-        try {
-            return walletRepository.count();
-        } catch (Exception e) {
-            return -1;
-        }
-    }
-
-    private double getCustomerCount() {
-        try {
-            return customerRepository.count();
-        } catch (Exception e) {
-            return -1;
-        }
-    }
-
-    private double getTransactionCount() {
-        try {
-            return transactionRepository.count();
-        } catch (Exception e) {
-            return -1;
-        }
+    @Bean
+    public Gauge countAgeGauge(MeterRegistry registry) {
+        return Gauge.builder("wallet.stats.age", walletStatistics, WalletStatistics::getSecondsSinceReconcile)
+                .description("Seconds since the count gauges were last reconciled against the database")
+                .baseUnit("seconds")
+                .register(registry);
     }
-}
\ No newline at end of file
+}
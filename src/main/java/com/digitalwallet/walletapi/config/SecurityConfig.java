@@ -1,18 +1,34 @@
 package com.digitalwallet.walletapi.config;
 
+import com.digitalwallet.walletapi.authorization.AuthorizationRules;
+import com.digitalwallet.walletapi.authorization.Authorize;
 import com.digitalwallet.walletapi.jwt.AuthTokenFilter;
 import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.function.Supplier;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -68,6 +84,7 @@ public class SecurityConfig {
                 .requestMatchers("/actuator/mappings").hasRole("EMPLOYEE")
                 .requestMatchers("/actuator/threaddump").hasRole("EMPLOYEE")
                 .requestMatchers("/actuator/heapdump").hasRole("EMPLOYEE")
+                .requestMatchers("/actuator/walletstats").hasRole("EMPLOYEE")
                 .requestMatchers("/actuator/**").hasRole("EMPLOYEE")
                 
                 // Require authentication for all other API endpoints
@@ -95,4 +112,31 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
     }
-}
\ No newline at end of file
+
+    /**
+     * Enforce @Authorize rules on controller methods, where @PreAuthorize checks would run.
+     * The rules are looked up lazily so that this infrastructure bean does not pull the
+     * authorization service and its repositories into early initialization.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor authorizeMethodInterceptor(ObjectProvider<AuthorizationRules> authorizationRules) {
+        AuthorizationManager<MethodInvocation> manager = new AuthorizationManager<>() {
+            @Override
+            public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+                return authorizationRules.getObject().authorize(authentication, invocation);
+            }
+
+            // Still abstract in AuthorizationManager, though only authorize() is called
+            @Override
+            @SuppressWarnings("deprecation")
+            public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+                return authorizationRules.getObject().authorize(authentication, invocation);
+            }
+        };
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                AnnotationMatchingPointcut.forMethodAnnotation(Authorize.class), manager);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+}
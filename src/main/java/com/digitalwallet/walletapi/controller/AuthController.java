@@ -4,7 +4,10 @@ import com.digitalwallet.walletapi.jwt.CustomUserDetails;
 import com.digitalwallet.walletapi.jwt.JwtUtils;
 import com.digitalwallet.walletapi.dto.request.LoginRequest;
 import com.digitalwallet.walletapi.dto.response.AuthResponse;
+import com.digitalwallet.walletapi.exception.BusinessException;
 import com.digitalwallet.walletapi.response.ApiResponse;
+import com.digitalwallet.walletapi.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +18,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -33,6 +37,7 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final TokenRevocationService tokenRevocationService;
 
     @Operation(
         summary = "User Login",
@@ -136,4 +141,40 @@ public class AuthController {
 
         return ResponseEntity.ok(ApiResponse.success(authResponse));
     }
-}
\ No newline at end of file
+
+    @Operation(
+        summary = "Logout",
+        description = "Revoke the presented JWT token so that it can no longer be used, even before it expires",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Token revoked"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Missing, invalid or non-revocable token"
+        )
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<String>> logout(
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false)
+            String authorization) {
+
+        Claims claims = authorization != null && authorization.startsWith("Bearer ")
+                ? jwtUtils.parseJwtToken(authorization.substring(7))
+                : null;
+        if (claims == null) {
+            throw new BusinessException("A valid bearer token is required", "INVALID_TOKEN");
+        }
+        if (claims.getId() == null) {
+            throw new BusinessException("Token was issued without an ID and cannot be revoked", "TOKEN_NOT_REVOCABLE");
+        }
+
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+        log.info("Logout successful for user: {}", claims.getSubject());
+
+        return ResponseEntity.ok(ApiResponse.success("Logout successful", claims.getSubject()));
+    }
+}
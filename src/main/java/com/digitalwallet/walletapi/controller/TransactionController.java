@@ -1,10 +1,16 @@
 package com.digitalwallet.walletapi.controller;
 
+import com.digitalwallet.walletapi.authorization.AccessRule;
+import com.digitalwallet.walletapi.authorization.Authorize;
 import com.digitalwallet.walletapi.dto.request.ApproveTransactionRequest;
+import com.digitalwallet.walletapi.dto.response.TransactionPageResponse;
 import com.digitalwallet.walletapi.dto.response.TransactionResponse;
 import com.digitalwallet.walletapi.entity.Transaction;
+import com.digitalwallet.walletapi.enums.ExportFormat;
 import com.digitalwallet.walletapi.mapper.TransactionMapper;
+import com.digitalwallet.walletapi.pagination.KeysetPage;
 import com.digitalwallet.walletapi.response.ApiResponse;
+import com.digitalwallet.walletapi.service.TransactionExportService;
 import com.digitalwallet.walletapi.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,10 +21,11 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -28,10 +35,12 @@ public class TransactionController {
 
     private final TransactionService transactionService;
     private final TransactionMapper transactionMapper;
+    private final TransactionExportService transactionExportService;
 
     @Operation(
         summary = "List Wallet Transactions",
-        description = "List all transactions for a specific wallet. Access is restricted based on wallet ownership.",
+        description = "List a wallet's transactions newest first, one page at a time. Pass the returned nextCursor " +
+                      "to get the following page. Access is restricted based on wallet ownership.",
         security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses(value = {
@@ -40,26 +49,70 @@ public class TransactionController {
             description = "Transactions retrieved successfully",
             content = @Content(
                 mediaType = "application/json",
-                schema = @Schema(implementation = TransactionResponse.class)
+                schema = @Schema(implementation = TransactionPageResponse.class)
             )
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or page size"
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "403",
             description = "Access denied - Insufficient permissions to view wallet transactions"
         )
     })
     @GetMapping("/wallets/{walletId}")
-    @PreAuthorize("hasRole('EMPLOYEE') or (hasRole('CUSTOMER') and @walletService.isWalletOwnerByWalletId(#walletId, authentication.principal.customerId))")
-    public ResponseEntity<ApiResponse<List<TransactionResponse>>> listTransactions(
+    @Authorize(value = AccessRule.WALLET_OWNER, target = "walletId")
+    public ResponseEntity<ApiResponse<TransactionPageResponse>> listTransactions(
             @Parameter(description = "Wallet ID to list transactions for", example = "1")
-            @PathVariable Long walletId) {
+            @PathVariable Long walletId,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, up to the configured maximum", example = "50")
+            @RequestParam(required = false) Integer limit) {
         
-        List<Transaction> transactions = transactionService.listTransactions(walletId);
-        List<TransactionResponse> response = transactionMapper.toResponseList(transactions);
+        KeysetPage<Transaction> page = transactionService.listTransactions(walletId, cursor, limit);
+        TransactionPageResponse response = TransactionPageResponse.builder()
+                .items(transactionMapper.toResponseList(page.items()))
+                .nextCursor(page.nextCursor())
+                .build();
         
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @Operation(
+        summary = "Export Wallet Transactions",
+        description = "Stream a wallet's complete transaction history, oldest first, as NDJSON or CSV. " +
+                      "Access is restricted based on wallet ownership.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Transaction history streamed successfully"
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "403",
+            description = "Access denied - Insufficient permissions to view wallet transactions"
+        )
+    })
+    @GetMapping("/wallets/{walletId}/export")
+    @Authorize(value = AccessRule.WALLET_OWNER, target = "walletId")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "Wallet ID to export transactions for", example = "1")
+            @PathVariable Long walletId,
+            @Parameter(description = "Export format", example = "CSV")
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+
+        StreamingResponseBody body = out -> transactionExportService.exportTransactions(walletId, format, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"wallet-" + walletId + "-transactions." + format.getExtension() + "\"")
+                .body(body);
+    }
+
     @Operation(
         summary = "Get Transaction Details",
         description = "Get details of a specific transaction by ID",
@@ -122,7 +175,7 @@ public class TransactionController {
         )
     })
     @PostMapping("/approve")
-    @PreAuthorize("hasRole('EMPLOYEE')")
+    @Authorize(AccessRule.EMPLOYEE)
     public ResponseEntity<ApiResponse<String>> approveTransaction(
             @Valid @RequestBody ApproveTransactionRequest request) {
         
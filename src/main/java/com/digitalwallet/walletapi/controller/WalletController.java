@@ -1,13 +1,20 @@
 package com.digitalwallet.walletapi.controller;
 
+import com.digitalwallet.walletapi.authorization.AccessRule;
+import com.digitalwallet.walletapi.authorization.Authorize;
+import com.digitalwallet.walletapi.dto.request.BatchOperationRequest;
+import com.digitalwallet.walletapi.dto.request.ConfigureStripesRequest;
 import com.digitalwallet.walletapi.dto.request.CreateWalletRequest;
 import com.digitalwallet.walletapi.dto.request.DepositRequest;
+import com.digitalwallet.walletapi.dto.request.TransferRequest;
 import com.digitalwallet.walletapi.dto.request.WithdrawRequest;
+import com.digitalwallet.walletapi.dto.response.BatchOperationResponse;
 import com.digitalwallet.walletapi.dto.response.WalletResponse;
 import com.digitalwallet.walletapi.entity.Wallet;
 import com.digitalwallet.walletapi.enums.Currency;
 import com.digitalwallet.walletapi.mapper.WalletMapper;
 import com.digitalwallet.walletapi.response.ApiResponse;
+import com.digitalwallet.walletapi.service.IdempotencyService;
 import com.digitalwallet.walletapi.service.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,10 +25,11 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @RestController
@@ -30,8 +38,16 @@ import java.util.List;
 @Tag(name = "Wallets", description = "Wallet management operations including creation, deposit, and withdrawal")
 public class WalletController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Lets clients keep wallet reads and revalidate them with If-None-Match on every use
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final WalletService walletService;
     private final WalletMapper walletMapper;
+    private final IdempotencyService idempotencyService;
 
     @Operation(
         summary = "Create New Wallet",
@@ -61,7 +77,7 @@ public class WalletController {
         )
     })
     @PostMapping("/customers/{customerId}")
-    @PreAuthorize("hasRole('EMPLOYEE')")
+    @Authorize(AccessRule.EMPLOYEE)
     public ResponseEntity<ApiResponse<WalletResponse>> createWallet(
             @Parameter(description = "Customer ID to create wallet for", example = "1")
             @PathVariable Long customerId,
@@ -76,7 +92,8 @@ public class WalletController {
 
     @Operation(
         summary = "List Customer Wallets",
-        description = "List all wallets for a specific customer. Employees can access any customer's wallets, customers can only access their own.",
+        description = "List all wallets for a specific customer. Employees can access any customer's wallets, customers can only access their own. " +
+                      "Responses carry an ETag; a request whose If-None-Match matches it gets 304 Not Modified.",
         security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @ApiResponses(value = {
@@ -88,45 +105,64 @@ public class WalletController {
                 schema = @Schema(implementation = WalletResponse.class)
             )
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "Wallets unchanged since the ETag given in If-None-Match"
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "403",
             description = "Access denied - Customers can only access their own wallets"
         )
     })
     @GetMapping("/customers/{customerId}")
-    @PreAuthorize("hasRole('EMPLOYEE') or @authService.isAccountOwner(#customerId)")
+    @Authorize(value = AccessRule.ACCOUNT_OWNER, target = "customerId")
     public ResponseEntity<ApiResponse<List<WalletResponse>>> listWallets(
             @Parameter(description = "Customer ID", example = "1")
             @PathVariable Long customerId,
             @Parameter(description = "Filter by currency (optional)", example = "TRY")
-            @RequestParam(required = false) Currency currency) {
+            @RequestParam(required = false) Currency currency,
+            WebRequest webRequest) {
         
+        String eTag = WalletETags.of(walletService.listWalletRevisions(customerId, currency));
+        // Sets the ETag header, and the 304 status when If-None-Match matches it
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         List<Wallet> wallets = currency != null 
                 ? walletService.listWallets(customerId, currency)
                 : walletService.listWallets(customerId);
         
         List<WalletResponse> response = walletMapper.toResponseList(wallets);
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(ApiResponse.success(response));
     }
 
     @Operation(
         summary = "Get Specific Wallet",
-        description = "Get details of a specific wallet by ID. Access is restricted based on ownership.",
+        description = "Get details of a specific wallet by ID. Access is restricted based on ownership. " +
+                      "Responses carry an ETag; a request whose If-None-Match matches it gets 304 Not Modified.",
         security = @SecurityRequirement(name = "Bearer Authentication")
     )
     @GetMapping("/{walletId}/customers/{customerId}")
-    @PreAuthorize("hasRole('EMPLOYEE') or @authService.isAccountOwner(#customerId)")
+    @Authorize(value = AccessRule.ACCOUNT_OWNER, target = "customerId")
     public ResponseEntity<ApiResponse<WalletResponse>> getWallet(
             @Parameter(description = "Wallet ID", example = "1")
             @PathVariable Long walletId,
             @Parameter(description = "Customer ID", example = "1")
-            @PathVariable Long customerId) {
+            @PathVariable Long customerId,
+            WebRequest webRequest) {
         
+        String eTag = WalletETags.of(walletService.getWalletRevision(walletId, customerId));
+        // Sets the ETag header, and the 304 status when If-None-Match matches it
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         Wallet wallet = walletService.getWallet(walletId, customerId);
         WalletResponse response = walletMapper.toResponse(wallet);
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(ApiResponse.success(response));
     }
 
     @Operation(
@@ -143,10 +179,15 @@ public class WalletController {
         )
     )
     @PostMapping("/deposit")
-    @PreAuthorize("hasRole('EMPLOYEE') or @authService.isWalletOwner(#request.walletId)")
-    public ResponseEntity<ApiResponse<String>> deposit(@Valid @RequestBody DepositRequest request) {
-        walletService.deposit(request);
-        return ResponseEntity.ok(ApiResponse.success("Deposit processed successfully", "Deposit completed"));
+    @Authorize(value = AccessRule.WALLET_OWNER, target = "request.walletId")
+    public ResponseEntity<ApiResponse<String>> deposit(
+            @Parameter(description = "Optional key that makes retries of this request safe")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody DepositRequest request) {
+        return idempotencyService.execute(idempotencyKey, "deposit", request, () -> {
+            walletService.deposit(request);
+            return ResponseEntity.ok(ApiResponse.success("Deposit processed successfully", "Deposit completed"));
+        });
     }
 
     @Operation(
@@ -163,9 +204,80 @@ public class WalletController {
         )
     )
     @PostMapping("/withdraw")
-    @PreAuthorize("hasRole('EMPLOYEE') or @authService.isWalletOwner(#request.walletId)")
-    public ResponseEntity<ApiResponse<String>> withdraw(@Valid @RequestBody WithdrawRequest request) {
-        walletService.withdraw(request);
-        return ResponseEntity.ok(ApiResponse.success("Withdraw processed successfully", "Withdraw completed"));
+    @Authorize(value = AccessRule.WALLET_OWNER, target = "request.walletId")
+    public ResponseEntity<ApiResponse<String>> withdraw(
+            @Parameter(description = "Optional key that makes retries of this request safe")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody WithdrawRequest request) {
+        return idempotencyService.execute(idempotencyKey, "withdraw", request, () -> {
+            walletService.withdraw(request);
+            return ResponseEntity.ok(ApiResponse.success("Withdraw processed successfully", "Withdraw completed"));
+        });
+    }
+
+    @Operation(
+        summary = "Transfer Between Wallets",
+        description = "Move money from one wallet to another in a single transaction. Amounts over 1000 require approval. " +
+                      "The source wallet must be active for withdraw and both wallets must use the same currency.",
+        security = @SecurityRequirement(name = "Bearer Authentication"),
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Transfer details",
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = TransferRequest.class)
+            )
+        )
+    )
+    @PostMapping("/transfer")
+    @Authorize(value = AccessRule.WALLET_OWNER, target = "request.fromWalletId")
+    public ResponseEntity<ApiResponse<String>> transfer(
+            @Parameter(description = "Optional key that makes retries of this request safe")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody TransferRequest request) {
+        return idempotencyService.execute(idempotencyKey, "transfer", request, () -> {
+            walletService.transfer(request);
+            return ResponseEntity.ok(ApiResponse.success("Transfer processed successfully", "Transfer completed"));
+        });
+    }
+
+    @Operation(
+        summary = "Batch Deposits and Withdrawals",
+        description = "Apply many deposits and withdrawals in one request and one database transaction. " +
+                      "Deposits are applied before withdrawals. In ALL_OR_NOTHING mode any failing item rolls back the whole batch; " +
+                      "in BEST_EFFORT mode failing items are skipped. The outcome of every item is returned.",
+        security = @SecurityRequirement(name = "Bearer Authentication"),
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Batch items",
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BatchOperationRequest.class)
+            )
+        )
+    )
+    @PostMapping("/batch")
+    @Authorize(value = AccessRule.WALLET_OWNER_OF_ALL, target = "request.walletIds")
+    public ResponseEntity<ApiResponse<BatchOperationResponse>> batch(@Valid @RequestBody BatchOperationRequest request) {
+        BatchOperationResponse response = walletService.processBatch(request);
+        String message = String.format("Batch processed: %d applied, %d failed", response.getApplied(), response.getFailed());
+        return ResponseEntity.ok(ApiResponse.success(message, response));
+    }
+
+    @Operation(
+        summary = "Configure Balance Stripes",
+        description = "Split a hot wallet's balance over several stripe rows so concurrent deposits do not serialize on one row. " +
+                      "Balances returned by the API are unchanged. Only employees can configure striping.",
+        security = @SecurityRequirement(name = "Bearer Authentication")
+    )
+    @PutMapping("/{walletId}/stripes")
+    @Authorize(AccessRule.EMPLOYEE)
+    public ResponseEntity<ApiResponse<WalletResponse>> configureStripes(
+            @Parameter(description = "Wallet ID", example = "1")
+            @PathVariable Long walletId,
+            @Valid @RequestBody ConfigureStripesRequest request) {
+
+        Wallet wallet = walletService.configureStripes(walletId, request.getStripeCount());
+        return ResponseEntity.ok(ApiResponse.success("Wallet stripes configured", walletMapper.toResponse(wallet)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.digitalwallet.walletapi.controller;
+
+import com.digitalwallet.walletapi.entity.Wallet;
+
+import java.util.List;
+
+/**
+ * Strong ETags of the wallet read endpoints, computed from wallet revisions rather
+ * than from the serialized response.
+ *
+ * A wallet's revision is its row version, which every write to the row moves, and
+ * its outstanding amounts, which balance stripes and ledger postings change without
+ * touching the row. Everything else in the response is fixed at creation or changes
+ * only through a row write. The endpoints read revisions from the database on every
+ * request, before loading the wallets, so a conditional request that matches is
+ * answered without loading them, and the tag does not depend on which instance's
+ * cache would have served the body.
+ */
+final class WalletETags {
+
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private WalletETags() {
+    }
+
+    static String of(Wallet wallet) {
+        return format(mix(SEED, wallet));
+    }
+
+    /**
+     * Tag of a list, which changes when a wallet is added or any listed wallet changes
+     */
+    static String of(List<Wallet> wallets) {
+        long hash = step(SEED, wallets.size());
+        for (Wallet wallet : wallets) {
+            hash = mix(hash, wallet);
+        }
+        return format(hash);
+    }
+
+    private static long mix(long hash, Wallet wallet) {
+        hash = step(hash, wallet.getId());
+        hash = step(hash, wallet.getVersion() == null ? 0L : wallet.getVersion());
+        hash = step(hash, wallet.getOutstandingBalance());
+        return step(hash, wallet.getOutstandingUsableBalance());
+    }
+
+    private static long step(long hash, long value) {
+        long mixed = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    private static String format(long hash) {
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+}
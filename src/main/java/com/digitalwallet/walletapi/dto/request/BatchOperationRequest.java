@@ -0,0 +1,45 @@
+package com.digitalwallet.walletapi.dto.request;
+
+import com.digitalwallet.walletapi.enums.BatchMode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Data
+@Schema(description = "Batch of deposits and withdrawals applied in a single request. Deposits are applied before withdrawals.")
+public class BatchOperationRequest {
+
+    @Schema(
+        description = "ALL_OR_NOTHING rolls back the whole batch if any item fails; BEST_EFFORT applies every item that can be applied",
+        example = "BEST_EFFORT",
+        allowableValues = {"ALL_OR_NOTHING", "BEST_EFFORT"},
+        required = true
+    )
+    @NotNull(message = "Batch mode is required")
+    private BatchMode mode;
+
+    @Schema(description = "Deposits to apply")
+    @NotNull(message = "Deposits cannot be null")
+    @Valid
+    private List<DepositRequest> deposits = new ArrayList<>();
+
+    @Schema(description = "Withdrawals to apply")
+    @NotNull(message = "Withdrawals cannot be null")
+    @Valid
+    private List<WithdrawRequest> withdrawals = new ArrayList<>();
+
+    /**
+     * Distinct wallet IDs touched by the batch, in ascending order
+     */
+    public Set<Long> walletIds() {
+        Set<Long> walletIds = new TreeSet<>();
+        deposits.forEach(deposit -> walletIds.add(deposit.getWalletId()));
+        withdrawals.forEach(withdraw -> walletIds.add(withdraw.getWalletId()));
+        return walletIds;
+    }
+}
@@ -0,0 +1,24 @@
+package com.digitalwallet.walletapi.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+@Schema(description = "Request to split a hot wallet's balance over several stripe rows")
+public class ConfigureStripesRequest {
+
+    @Schema(
+        description = "Number of balance stripes (0 turns striping off)",
+        example = "8",
+        minimum = "0",
+        maximum = "64",
+        required = true
+    )
+    @NotNull(message = "Stripe count is required")
+    @Min(value = 0, message = "Stripe count cannot be negative")
+    @Max(value = 64, message = "Stripe count cannot exceed 64")
+    private Integer stripeCount;
+}
@@ -0,0 +1,40 @@
+package com.digitalwallet.walletapi.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@Schema(description = "Transfer request for moving money between two wallets")
+public class TransferRequest {
+
+    @Schema(
+        description = "Amount to transfer (amounts over 1000 require approval)",
+        example = "250.00",
+        minimum = "0.01",
+        required = true
+    )
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Digits(integer = 17, fraction = 2, message = "Amount must have at most 2 decimal places")
+    private BigDecimal amount;
+
+    @Schema(
+        description = "ID of the wallet to take the money from",
+        example = "1",
+        required = true
+    )
+    @NotNull(message = "Source wallet ID is required")
+    private Long fromWalletId;
+
+    @Schema(
+        description = "ID of the wallet to put the money into",
+        example = "2",
+        required = true
+    )
+    @NotNull(message = "Destination wallet ID is required")
+    private Long toWalletId;
+}
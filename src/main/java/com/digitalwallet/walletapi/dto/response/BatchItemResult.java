@@ -0,0 +1,40 @@
+package com.digitalwallet.walletapi.dto.response;
+
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of one item of a batch")
+public class BatchItemResult {
+
+    @Schema(description = "Whether the item was a deposit or a withdrawal", example = "DEPOSIT")
+    private TransactionType type;
+
+    @Schema(description = "Position of the item in its deposits or withdrawals list", example = "0")
+    private int index;
+
+    @Schema(description = "Wallet the item targeted", example = "1")
+    private Long walletId;
+
+    @Schema(description = "Whether the item was applied", example = "true")
+    private boolean applied;
+
+    @Schema(description = "Status of the recorded transaction when applied", example = "APPROVED")
+    private TransactionStatus status;
+
+    @Schema(description = "Error code when the item was not applied", example = "INSUFFICIENT_BALANCE")
+    private String error;
+
+    @Schema(description = "Error message when the item was not applied")
+    private String message;
+}
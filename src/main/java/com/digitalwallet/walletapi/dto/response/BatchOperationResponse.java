@@ -0,0 +1,29 @@
+package com.digitalwallet.walletapi.dto.response;
+
+import com.digitalwallet.walletapi.enums.BatchMode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Per-item outcomes of a batch of deposits and withdrawals")
+public class BatchOperationResponse {
+
+    @Schema(description = "Mode the batch was processed in", example = "BEST_EFFORT")
+    private BatchMode mode;
+
+    @Schema(description = "Number of items applied", example = "98")
+    private int applied;
+
+    @Schema(description = "Number of items not applied", example = "2")
+    private int failed;
+
+    @Schema(description = "Outcome of every item, deposits first")
+    private List<BatchItemResult> results;
+}
@@ -0,0 +1,22 @@
+package com.digitalwallet.walletapi.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of a wallet's transactions, newest first")
+public class TransactionPageResponse {
+
+    @Schema(description = "Transactions on this page")
+    private List<TransactionResponse> items;
+
+    @Schema(description = "Token for the next page; absent on the last page", example = "MjAyNS0wMS0wMVQxMDowMHwxMjM")
+    private String nextCursor;
+}
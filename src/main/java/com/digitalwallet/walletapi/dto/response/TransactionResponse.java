@@ -44,13 +44,13 @@ public class TransactionResponse {
     @Schema(
         description = "Type of the opposite party in the transaction",
         example = "IBAN",
-        allowableValues = {"IBAN", "PAYMENT"},
+        allowableValues = {"IBAN", "PAYMENT", "WALLET"},
         accessMode = Schema.AccessMode.READ_ONLY
     )
     private OppositePartyType oppositePartyType;
     
     @Schema(
-        description = "Identifier of the opposite party (IBAN or payment ID)",
+        description = "Identifier of the opposite party (IBAN, payment ID or wallet ID)",
         examples = {
             "TR123456789012345678901234",
             "PAY12345"
@@ -66,6 +66,13 @@ public class TransactionResponse {
         accessMode = Schema.AccessMode.READ_ONLY
     )
     private TransactionStatus status;
+
+    @Schema(
+        description = "Identifier shared by both legs of a wallet-to-wallet transfer",
+        example = "3f2b8c1e-6a4d-4f1a-9c55-0e7d2a9b4c11",
+        accessMode = Schema.AccessMode.READ_ONLY
+    )
+    private String transferId;
     
     @Schema(
         description = "Timestamp when the transaction was created",
@@ -0,0 +1,54 @@
+package com.digitalwallet.walletapi.engine;
+
+import com.digitalwallet.walletapi.enums.OppositePartyType;
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A balance change submitted to a shard. New deposits and withdrawals carry the
+ * transaction to record; settlements apply an approval decision to an existing one.
+ * Amounts are in minor units. The result completes once the change has been written
+ * to the database.
+ */
+@Getter
+final class BalanceCommand {
+
+    enum Kind {
+        RECORD, SETTLE
+    }
+
+    private final Kind kind;
+    private final Long walletId;
+    private final Long transactionId;
+    private final TransactionType type;
+    private final long amount;
+    private final TransactionStatus status;
+    private final OppositePartyType oppositePartyType;
+    private final String oppositeParty;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private BalanceCommand(Kind kind, Long walletId, Long transactionId, TransactionType type, long amount,
+                           TransactionStatus status, OppositePartyType oppositePartyType, String oppositeParty) {
+        this.kind = kind;
+        this.walletId = walletId;
+        this.transactionId = transactionId;
+        this.type = type;
+        this.amount = amount;
+        this.status = status;
+        this.oppositePartyType = oppositePartyType;
+        this.oppositeParty = oppositeParty;
+    }
+
+    static BalanceCommand record(Long walletId, TransactionType type, long amount, TransactionStatus status,
+                                 OppositePartyType oppositePartyType, String oppositeParty) {
+        return new BalanceCommand(Kind.RECORD, walletId, null, type, amount, status, oppositePartyType, oppositeParty);
+    }
+
+    static BalanceCommand settle(Long walletId, Long transactionId, TransactionType type, long amount,
+                                 TransactionStatus decision) {
+        return new BalanceCommand(Kind.SETTLE, walletId, transactionId, type, amount, decision, null, null);
+    }
+}
@@ -0,0 +1,343 @@
+package com.digitalwallet.walletapi.engine;
+
+import com.digitalwallet.walletapi.cache.WalletCache;
+import com.digitalwallet.walletapi.entity.Transaction;
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.OppositePartyType;
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.repository.TransactionRepository;
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import com.digitalwallet.walletapi.write.WalletStripes;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opt-in engine that keeps authoritative wallet balances in memory.
+ *
+ * Wallet IDs are partitioned over a fixed number of shards. Each shard has one
+ * writer thread fed by a lock-free ring buffer, so deposits, withdrawals and
+ * approval decisions are applied without any database lock. A persister thread
+ * writes the resulting transactions, approval decisions and balance snapshots to
+ * the database in batches, and a shard recovers a wallet's balances from the
+ * database the first time it sees it, which is also how state is rebuilt after a
+ * restart and after a shard drops the state of a wallet left idle.
+ *
+ * Callers are completed only once the batch holding their change has committed, so
+ * nothing acknowledged is lost with the process. The persist queue is bounded: when
+ * the database falls behind, shards block on it and callers wait. A failed batch is
+ * retried until it commits; only on shutdown does the engine give up, failing the
+ * callers still waiting, and then it writes nothing more, since later snapshots
+ * would include the changes it gave up on.
+ */
+@Component
+@Slf4j
+public class BalanceEngine {
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final WalletStripes walletStripes;
+    private final WalletCache walletCache;
+    private final Set<Long> unwrittenSettlements = ConcurrentHashMap.newKeySet();
+
+    @Value("${wallet.engine.enabled:false}")
+    private boolean enabled;
+
+    @Value("${wallet.engine.shards:4}")
+    private int shardCount;
+
+    @Value("${wallet.engine.ring-size:4096}")
+    private int ringSize;
+
+    @Value("${wallet.engine.persist-batch-size:500}")
+    private int persistBatchSize;
+
+    @Value("${wallet.engine.persist-interval-ms:10}")
+    private long persistIntervalMs;
+
+    @Value("${wallet.engine.persist-queue-capacity:100000}")
+    private int persistQueueCapacity = 100_000;
+
+    @Value("${wallet.engine.persist-retry-ms:1000}")
+    private long persistRetryMs = 1000;
+
+    @Value("${wallet.engine.await-timeout-ms:30000}")
+    private long awaitTimeoutMs = 30000;
+
+    @Value("${wallet.engine.state-idle-ms:60000}")
+    private long stateIdleMs = 60000;
+
+    private BalanceShard[] shards;
+    private BlockingQueue<PersistRecord> persistQueue;
+    private Thread persisterThread;
+    private volatile boolean persisting;
+    private volatile boolean stopping;
+    private volatile boolean abandoned;
+    private DistributionSummary persistBatchSummary;
+
+    public BalanceEngine(WalletRepository walletRepository,
+                         TransactionRepository transactionRepository,
+                         TransactionTemplate transactionTemplate,
+                         MeterRegistry meterRegistry,
+                         WalletStripes walletStripes,
+                         WalletCache walletCache) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.walletStripes = walletStripes;
+        this.walletCache = walletCache;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        persistQueue = new LinkedBlockingQueue<>(persistQueueCapacity);
+        shards = new BalanceShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new BalanceShard("wallet-balance-shard-" + i, ringSize, stateIdleMs,
+                    this::loadWallet, this::claimSettlement, this::enqueue);
+            shards[i].start();
+        }
+
+        persisting = true;
+        persisterThread = new Thread(this::persistLoop, "wallet-balance-persister");
+        persisterThread.setDaemon(true);
+        persisterThread.start();
+
+        persistBatchSummary = DistributionSummary.builder("wallet.engine.persist.batch.size")
+                .description("Number of applied commands written per persistence batch")
+                .register(meterRegistry);
+        Gauge.builder("wallet.engine.ring.backlog", this,
+                        engine -> Arrays.stream(engine.shards).mapToInt(BalanceShard::backlog).sum())
+                .description("Commands published to the shard rings but not yet applied")
+                .register(meterRegistry);
+        Gauge.builder("wallet.engine.persist.backlog", persistQueue, BlockingQueue::size)
+                .description("Applied commands not yet written to the database")
+                .register(meterRegistry);
+
+        log.info("Balance engine enabled with {} shards", shardCount);
+    }
+
+    /**
+     * Apply the commands already published and write them out, giving up on batches
+     * that still fail after a few attempts
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (shards == null) {
+            return;
+        }
+        stopping = true;
+        for (BalanceShard shard : shards) {
+            shard.stop();
+        }
+        persisting = false;
+        persisterThread.join();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record a new deposit or withdraw. Withdraw rule violations are raised as the
+     * same business exceptions the database paths use.
+     */
+    public void record(Long walletId, TransactionType type, long amount, TransactionStatus status,
+                       OppositePartyType oppositePartyType, String oppositeParty) {
+        submit(BalanceCommand.record(walletId, type, amount, status, oppositePartyType, oppositeParty));
+    }
+
+    /**
+     * Approve or deny a pending transaction. The decision is stored together with the
+     * balances it changes; a transaction that is no longer pending is rejected.
+     */
+    public void settle(Long walletId, Long transactionId, TransactionType type, long amount,
+                       TransactionStatus decision) {
+        submit(BalanceCommand.settle(walletId, transactionId, type, amount, decision));
+    }
+
+    private void submit(BalanceCommand command) {
+        shards[Math.floorMod(command.getWalletId().hashCode(), shards.length)].submit(command);
+        try {
+            command.getResult().get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Balance engine command failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Balance change for wallet " + command.getWalletId()
+                    + " was not written within " + awaitTimeoutMs + " ms, its outcome is unknown", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a balance change", e);
+        }
+    }
+
+    /**
+     * Claim a transaction for settlement on its shard's thread. The claim is taken
+     * before the status is read and released only after the decision is written, so
+     * two concurrent approvals of one transaction cannot both pass.
+     */
+    private boolean claimSettlement(Long transactionId) {
+        if (!unwrittenSettlements.add(transactionId)) {
+            return false;
+        }
+        boolean pending = transactionTemplate.execute(status -> transactionRepository.findById(transactionId)
+                .map(transaction -> transaction.getStatus() == TransactionStatus.PENDING)
+                .orElse(false));
+        if (!pending) {
+            unwrittenSettlements.remove(transactionId);
+        }
+        return pending;
+    }
+
+    /**
+     * Hand an applied command to the persister, blocking while the persist queue is full
+     */
+    private void enqueue(PersistRecord record) {
+        try {
+            persistQueue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(record, new IllegalStateException("Interrupted before the balance change was queued", e));
+        }
+    }
+
+    /**
+     * Load a wallet for a shard, folding any balance stripes into the wallet row
+     * first since the engine only ever writes the row itself
+     */
+    private Optional<Wallet> loadWallet(Long walletId) {
+        return transactionTemplate.execute(status -> walletRepository.findByIdForUpdate(walletId)
+                .map(wallet -> {
+                    if (wallet.getStripeCount() > 0) {
+                        walletStripes.consolidate(wallet);
+                    }
+                    return wallet;
+                }));
+    }
+
+    private void persistLoop() {
+        List<PersistRecord> batch = new ArrayList<>(persistBatchSize);
+        while (persisting || !persistQueue.isEmpty()) {
+            try {
+                PersistRecord first = persistQueue.poll(persistIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                persistQueue.drainTo(batch, persistBatchSize - 1);
+                persistWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keep retrying a failed batch until it commits, then complete its callers.
+     * Only when the engine is shutting down are the callers failed instead; they
+     * were never acknowledged, so nothing they were told is lost.
+     */
+    private void persistWithRetry(List<PersistRecord> batch) throws InterruptedException {
+        for (int attempt = 1; !abandoned; attempt++) {
+            try {
+                persist(batch);
+                persistBatchSummary.record(batch.size());
+                batch.forEach(record -> release(record, null));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Persisting {} balance engine records failed (attempt {}): {}",
+                        batch.size(), attempt, e.getMessage());
+                if (stopping && attempt >= 3) {
+                    log.error("Giving up on {} balance engine records on shutdown; their callers are failed",
+                            batch.size());
+                    abandoned = true;
+                } else {
+                    TimeUnit.MILLISECONDS.sleep(Math.min(persistRetryMs * attempt, persistRetryMs * 10));
+                }
+            }
+        }
+        IllegalStateException failure = new IllegalStateException("Balance change was not written before shutdown");
+        batch.forEach(record -> release(record, failure));
+    }
+
+    /**
+     * Complete a command's caller, or fail it, and release its settlement claim
+     */
+    private void release(PersistRecord record, RuntimeException failure) {
+        BalanceCommand command = record.command();
+        if (command.getKind() == BalanceCommand.Kind.SETTLE) {
+            unwrittenSettlements.remove(command.getTransactionId());
+        }
+        if (failure == null) {
+            command.getResult().complete(null);
+        } else {
+            command.getResult().completeExceptionally(failure);
+        }
+    }
+
+    private void persist(List<PersistRecord> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Transaction> transactions = new ArrayList<>();
+            Map<Long, PersistRecord> latestByWallet = new LinkedHashMap<>();
+
+            for (PersistRecord record : batch) {
+                BalanceCommand command = record.command();
+                latestByWallet.put(command.getWalletId(), record);
+
+                if (command.getKind() == BalanceCommand.Kind.SETTLE) {
+                    if (transactionRepository.decidePending(command.getTransactionId(), command.getStatus()) == 0) {
+                        log.error("Transaction {} was no longer pending when its {} decision was written",
+                                command.getTransactionId(), command.getStatus());
+                    }
+                } else {
+                    transactions.add(Transaction.builder()
+                            .wallet(walletRepository.getReferenceById(command.getWalletId()))
+                            .amount(command.getAmount())
+                            .type(command.getType())
+                            .oppositePartyType(command.getOppositePartyType())
+                            .oppositeParty(command.getOppositeParty())
+                            .status(command.getStatus())
+                            .build());
+                }
+            }
+
+            transactionRepository.saveAll(transactions);
+            latestByWallet.forEach((walletId, record) ->
+                    walletRepository.overwriteBalances(walletId, record.balance(), record.usableBalance()));
+            walletCache.evictWallets(latestByWallet.keySet());
+        });
+    }
+}
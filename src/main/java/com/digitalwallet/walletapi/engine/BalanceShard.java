@@ -0,0 +1,235 @@
+package com.digitalwallet.walletapi.engine;
+
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.OppositePartyType;
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.exception.InsufficientBalanceException;
+import com.digitalwallet.walletapi.money.Money;
+import com.digitalwallet.walletapi.exception.WalletNotActiveException;
+import com.digitalwallet.walletapi.exception.WalletNotFoundException;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Owns the balances of every wallet that hashes to it. A single writer thread
+ * drains the command ring, so balance changes need no locks and are applied in
+ * the order they were published.
+ *
+ * An applied command is handed to the persister, which completes it once it is
+ * written; a rejected command is completed here with its business exception and
+ * leaves the balances untouched. Handing over blocks while the persister is
+ * behind, which stops the shard and, once its ring is full, its submitters.
+ *
+ * A wallet's state is dropped once it has been idle for the configured time and
+ * all of its changes are written, and is recovered from the row on its next
+ * command like on first use. This bounds the states to the wallets in recent use
+ * and picks up changes made to an idle wallet's row outside the engine.
+ */
+final class BalanceShard implements Runnable {
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    private final Thread thread;
+    private final CommandRing<BalanceCommand> ring;
+    // Access order, so the least recently used states come first
+    private final Map<Long, WalletState> states = new LinkedHashMap<>(16, 0.75f, true);
+    private final long stateIdleNanos;
+    private final Function<Long, Optional<Wallet>> walletLoader;
+    private final Predicate<Long> settlementClaim;
+    private final Consumer<PersistRecord> persister;
+
+    private volatile boolean running = true;
+    private long lastSweepNanos = System.nanoTime();
+
+    /**
+     * @param stateIdleMs     how long a wallet's state is kept without commands once its changes are written
+     * @param settlementClaim claims a pending transaction for settlement; false if it is not
+     *                        pending or another settlement of it has not been written yet
+     */
+    BalanceShard(String name, int ringSize, long stateIdleMs, Function<Long, Optional<Wallet>> walletLoader,
+                 Predicate<Long> settlementClaim, Consumer<PersistRecord> persister) {
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.ring = new CommandRing<>(ringSize);
+        this.stateIdleNanos = TimeUnit.MILLISECONDS.toNanos(stateIdleMs);
+        this.walletLoader = walletLoader;
+        this.settlementClaim = settlementClaim;
+        this.persister = persister;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Stop after the commands already published have been applied
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+    }
+
+    /**
+     * Publish a command, spinning and then parking while the ring is full
+     */
+    void submit(BalanceCommand command) {
+        if (!running) {
+            throw new IllegalStateException("Balance shard " + thread.getName() + " is stopped");
+        }
+        int spins = 0;
+        while (!ring.offer(command)) {
+            if (!running) {
+                throw new IllegalStateException("Balance shard " + thread.getName() + " is stopped");
+            }
+            if (++spins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    int backlog() {
+        return ring.size();
+    }
+
+    @Override
+    public void run() {
+        int idleSpins = 0;
+        while (running || ring.size() > 0) {
+            evictIdleStates();
+            BalanceCommand command = ring.poll();
+            if (command == null) {
+                if (++idleSpins < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                continue;
+            }
+            idleSpins = 0;
+            apply(command);
+        }
+    }
+
+    private void apply(BalanceCommand command) {
+        WalletState state;
+        try {
+            state = state(command.getWalletId());
+            if (command.getKind() == BalanceCommand.Kind.RECORD) {
+                record(state, command);
+            } else {
+                settle(state, command);
+            }
+        } catch (RuntimeException e) {
+            command.getResult().completeExceptionally(e);
+            return;
+        }
+        state.unwritten.incrementAndGet();
+        command.getResult().whenComplete((result, failure) -> state.unwritten.decrementAndGet());
+        persister.accept(new PersistRecord(command, state.balance, state.usableBalance));
+    }
+
+    /**
+     * Drop the states idle for longer than the configured time whose changes are all
+     * written. Runs at most once per quarter of that time; the walk stops at the first
+     * recently used state, since the ones after it were used later still.
+     */
+    private void evictIdleStates() {
+        long now = System.nanoTime();
+        if (now - lastSweepNanos < stateIdleNanos / 4) {
+            return;
+        }
+        lastSweepNanos = now;
+
+        Iterator<WalletState> iterator = states.values().iterator();
+        while (iterator.hasNext()) {
+            WalletState state = iterator.next();
+            if (now - state.lastUsedNanos < stateIdleNanos) {
+                return;
+            }
+            if (state.unwritten.get() == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Look up a wallet's state, recovering it from the database on first use or after it was evicted
+     */
+    private WalletState state(Long walletId) {
+        WalletState state = states.get(walletId);
+        if (state == null) {
+            Wallet wallet = walletLoader.apply(walletId)
+                    .orElseThrow(() -> new WalletNotFoundException(walletId));
+            state = new WalletState(wallet);
+            states.put(walletId, state);
+        }
+        state.lastUsedNanos = System.nanoTime();
+        return state;
+    }
+
+    /**
+     * Apply a new deposit or withdraw with the same rules as the database paths
+     */
+    private void record(WalletState state, BalanceCommand command) {
+        boolean approved = command.getStatus() == TransactionStatus.APPROVED;
+
+        if (command.getType() == TransactionType.DEPOSIT) {
+            state.balance = Money.add(state.balance, command.getAmount());
+            if (approved) {
+                state.usableBalance = Money.add(state.usableBalance, command.getAmount());
+            }
+            return;
+        }
+
+        if (command.getOppositePartyType() == OppositePartyType.PAYMENT) {
+            if (!state.activeForShopping) {
+                throw new WalletNotActiveException("shopping");
+            }
+        } else if (!state.activeForWithdraw) {
+            throw new WalletNotActiveException("withdraw");
+        }
+
+        if (state.usableBalance < command.getAmount()) {
+            throw new InsufficientBalanceException(command.getAmount(), state.usableBalance);
+        }
+
+        state.usableBalance = Money.subtract(state.usableBalance, command.getAmount());
+        if (approved) {
+            state.balance = Money.subtract(state.balance, command.getAmount());
+        }
+    }
+
+    /**
+     * Apply an approval decision for a pending transaction
+     */
+    private void settle(WalletState state, BalanceCommand command) {
+        if (!settlementClaim.test(command.getTransactionId())) {
+            throw new IllegalStateException("Only pending transactions can be approved or denied");
+        }
+        boolean approved = command.getStatus() == TransactionStatus.APPROVED;
+
+        if (command.getType() == TransactionType.DEPOSIT) {
+            if (approved) {
+                state.usableBalance = Money.add(state.usableBalance, command.getAmount());
+            } else {
+                state.balance = Money.subtract(state.balance, command.getAmount());
+            }
+        } else if (approved) {
+            state.balance = Money.subtract(state.balance, command.getAmount());
+        } else {
+            state.usableBalance = Money.add(state.usableBalance, command.getAmount());
+        }
+    }
+}
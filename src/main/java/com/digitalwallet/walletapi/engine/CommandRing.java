@@ -0,0 +1,71 @@
+package com.digitalwallet.walletapi.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer with many producers and a single consumer.
+ *
+ * Producers claim a sequence with a CAS, write the slot and then publish the
+ * sequence into the slot's marker. The consumer only reads a slot once its marker
+ * carries the expected sequence, so claimed-but-unwritten slots are never seen.
+ */
+final class CommandRing<E> {
+
+    private final Object[] entries;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    CommandRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.entries = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Try to append an entry; returns false when the ring is full
+     */
+    boolean offer(E entry) {
+        while (true) {
+            long sequence = claimed.get();
+            if (sequence - consumed.get() >= entries.length) {
+                return false;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                int index = (int) sequence & mask;
+                entries[index] = entry;
+                published.lazySet(index, sequence);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take the next entry, or null when nothing has been published yet.
+     * Must only be called from the consumer thread.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long sequence = consumed.get();
+        int index = (int) sequence & mask;
+        if (published.get(index) != sequence) {
+            return null;
+        }
+        E entry = (E) entries[index];
+        entries[index] = null;
+        consumed.lazySet(sequence + 1);
+        return entry;
+    }
+
+    int size() {
+        return (int) (claimed.get() - consumed.get());
+    }
+}
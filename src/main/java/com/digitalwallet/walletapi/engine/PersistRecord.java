@@ -0,0 +1,8 @@
+package com.digitalwallet.walletapi.engine;
+
+/**
+ * Outcome of an applied command waiting to be written to the database: the
+ * command itself and the wallet balances right after it was applied.
+ */
+record PersistRecord(BalanceCommand command, long balance, long usableBalance) {
+}
@@ -0,0 +1,29 @@
+package com.digitalwallet.walletapi.engine;
+
+import com.digitalwallet.walletapi.entity.Wallet;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Authoritative in-memory balances of one wallet, in minor units. Only touched by its
+ * shard's writer thread, except for the count of changes not yet written, which the
+ * persister lowers as it completes them.
+ */
+final class WalletState {
+
+    final Long walletId;
+    final boolean activeForShopping;
+    final boolean activeForWithdraw;
+    final AtomicInteger unwritten = new AtomicInteger();
+    long balance;
+    long usableBalance;
+    long lastUsedNanos;
+
+    WalletState(Wallet wallet) {
+        this.walletId = wallet.getId();
+        this.activeForShopping = wallet.getActiveForShopping();
+        this.activeForWithdraw = wallet.getActiveForWithdraw();
+        this.balance = wallet.getBalance();
+        this.usableBalance = wallet.getUsableBalance();
+    }
+}
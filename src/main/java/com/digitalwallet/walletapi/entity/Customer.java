@@ -1,5 +1,6 @@
 package com.digitalwallet.walletapi.entity;
 
+import com.digitalwallet.walletapi.jwt.UserDetailsEvictionListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -7,6 +8,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "customers")
+@EntityListeners(UserDetailsEvictionListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,7 +16,8 @@ import java.util.List;
 @Builder
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
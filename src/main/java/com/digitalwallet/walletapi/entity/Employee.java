@@ -1,10 +1,12 @@
 package com.digitalwallet.walletapi.entity;
 
+import com.digitalwallet.walletapi.jwt.UserDetailsEvictionListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Table(name = "employees")
+@EntityListeners(UserDetailsEvictionListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,63 @@
+package com.digitalwallet.walletapi.entity;
+
+import com.digitalwallet.walletapi.enums.LedgerAccount;
+import com.digitalwallet.walletapi.money.MinorUnitsConverter;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One leg of a double-entry ledger entry. The legs of an entry share an entry ID
+ * and sum to zero. Postings are only ever inserted; the materializer merely flags
+ * wallet postings once they have been folded into the wallet row.
+ */
+@Entity
+@Table(name = "postings")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Posting {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posting_seq")
+    @SequenceGenerator(name = "posting_seq", sequenceName = "posting_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "entry_id", nullable = false, length = 36)
+    private String entryId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id", nullable = false)
+    private Transaction transaction;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private LedgerAccount account;
+
+    /**
+     * Owning wallet of a wallet account; null for system accounts
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id")
+    private Wallet wallet;
+
+    /**
+     * Signed amount in minor units; positive adds to the account
+     */
+    @Convert(converter = MinorUnitsConverter.class)
+    @Column(nullable = false, precision = 19, scale = 2)
+    private long amount;
+
+    @Column(nullable = false)
+    private boolean materialized;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = LocalDateTime.now();
+    }
+}
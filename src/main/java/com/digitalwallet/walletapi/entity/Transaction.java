@@ -3,9 +3,9 @@ package com.digitalwallet.walletapi.entity;
 import com.digitalwallet.walletapi.enums.OppositePartyType;
 import com.digitalwallet.walletapi.enums.TransactionStatus;
 import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.money.MinorUnitsConverter;
 import jakarta.persistence.*;
 import lombok.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -17,15 +17,20 @@ import java.time.LocalDateTime;
 @Builder
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id", nullable = false)
     private Wallet wallet;
 
+    /**
+     * Amount in minor units of the wallet's currency
+     */
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal amount;
+    private long amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -42,6 +47,12 @@ public class Transaction {
     @Column(nullable = false)
     private TransactionStatus status;
 
+    /**
+     * Shared by both legs of a wallet-to-wallet transfer
+     */
+    @Column(name = "transfer_id", length = 36)
+    private String transferId;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -1,6 +1,8 @@
 package com.digitalwallet.walletapi.entity;
 
 import com.digitalwallet.walletapi.enums.Currency;
+import com.digitalwallet.walletapi.money.MinorUnitsConverter;
+import com.digitalwallet.walletapi.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -16,7 +18,8 @@ import java.util.List;
 @Builder
 public class Wallet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_seq")
+    @SequenceGenerator(name = "wallet_seq", sequenceName = "wallet_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,20 +39,60 @@ public class Wallet {
     @Column(name = "active_for_withdraw", nullable = false)
     private Boolean activeForWithdraw;
 
-    @Builder.Default
+    /**
+     * Balance in minor units of the wallet's currency
+     */
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal balance = BigDecimal.ZERO;
+    private long balance;
 
-    @Builder.Default
+    /**
+     * Usable balance in minor units of the wallet's currency
+     */
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "usable_balance", nullable = false, precision = 19, scale = 2)
-    private BigDecimal usableBalance = BigDecimal.ZERO;
+    private long usableBalance;
+
+    /**
+     * Number of balance stripes; 0 means the whole balance lives on this row
+     */
+    @Builder.Default
+    @Column(name = "stripe_count", nullable = false)
+    private Integer stripeCount = 0;
+
+    /**
+     * Balance held outside the wallet row (balance stripes, unmaterialized ledger
+     * postings), filled in for reads and withdraw checks
+     */
+    @Transient
+    private long outstandingBalance;
+
+    @Transient
+    private long outstandingUsableBalance;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Transaction> transactions;
 
+    /**
+     * Balance including any outstanding amounts
+     */
+    public BigDecimal getTotalBalance() {
+        return Money.toDecimal(Money.add(balance, outstandingBalance));
+    }
+
+    /**
+     * Usable balance including any outstanding amounts
+     */
+    public BigDecimal getTotalUsableBalance() {
+        return Money.toDecimal(Money.add(usableBalance, outstandingUsableBalance));
+    }
+
     @PrePersist
     public void prePersist() {
         createdAt = LocalDateTime.now();
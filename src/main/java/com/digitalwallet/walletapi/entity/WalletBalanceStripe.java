@@ -0,0 +1,40 @@
+package com.digitalwallet.walletapi.entity;
+
+import com.digitalwallet.walletapi.money.MinorUnitsConverter;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One slice of a striped wallet's balance. Deposits to a striped wallet land on a
+ * random stripe so that concurrent writers lock different rows; the wallet's real
+ * balance is the wallet row plus the sum of its stripes.
+ */
+@Entity
+@Table(name = "wallet_balance_stripes",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"wallet_id", "stripe_index"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletBalanceStripe {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_balance_stripe_seq")
+    @SequenceGenerator(name = "wallet_balance_stripe_seq", sequenceName = "wallet_balance_stripe_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+
+    @Column(name = "stripe_index", nullable = false)
+    private Integer stripeIndex;
+
+    @Convert(converter = MinorUnitsConverter.class)
+    @Column(nullable = false, precision = 19, scale = 2)
+    private long balance;
+
+    @Convert(converter = MinorUnitsConverter.class)
+    @Column(name = "usable_balance", nullable = false, precision = 19, scale = 2)
+    private long usableBalance;
+}
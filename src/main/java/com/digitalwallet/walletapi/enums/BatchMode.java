@@ -0,0 +1,5 @@
+package com.digitalwallet.walletapi.enums;
+
+public enum BatchMode {
+    ALL_OR_NOTHING, BEST_EFFORT
+}
@@ -0,0 +1,5 @@
+package com.digitalwallet.walletapi.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS, COMPLETED
+}
@@ -0,0 +1,20 @@
+package com.digitalwallet.walletapi.enums;
+
+/**
+ * Accounts a ledger posting can be made against. Wallet accounts belong to one
+ * wallet; system accounts stand for the outside world.
+ */
+public enum LedgerAccount {
+    /** Usable part of a wallet's balance */
+    WALLET_AVAILABLE,
+    /** Part of a wallet's balance held by pending transactions */
+    WALLET_HELD,
+    /** Money entering or leaving through IBAN and payment parties */
+    SETTLEMENT,
+    /** Money on its way between two wallets */
+    TRANSFER_CLEARING;
+
+    public boolean isWalletAccount() {
+        return this == WALLET_AVAILABLE || this == WALLET_HELD;
+    }
+}
@@ -1,5 +1,5 @@
 package com.digitalwallet.walletapi.enums;
 
 public enum OppositePartyType {
-    IBAN, PAYMENT
+    IBAN, PAYMENT, WALLET
 }
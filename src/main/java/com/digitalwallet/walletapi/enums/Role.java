@@ -0,0 +1,32 @@
+package com.digitalwallet.walletapi.enums;
+
+/**
+ * Roles a user can hold. Each role has one bit, so a user's roles fit in an int
+ * and are checked with a mask instead of by comparing authority strings.
+ */
+public enum Role {
+    EMPLOYEE,
+    CUSTOMER,
+    ADMIN;
+
+    private static final String AUTHORITY_PREFIX = "ROLE_";
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Role named by a granted authority such as "ROLE_EMPLOYEE", or null for other authorities
+     */
+    public static Role fromAuthority(String authority) {
+        if (authority == null || !authority.startsWith(AUTHORITY_PREFIX)) {
+            return null;
+        }
+        return switch (authority.substring(AUTHORITY_PREFIX.length())) {
+            case "EMPLOYEE" -> EMPLOYEE;
+            case "CUSTOMER" -> CUSTOMER;
+            case "ADMIN" -> ADMIN;
+            default -> null;
+        };
+    }
+}
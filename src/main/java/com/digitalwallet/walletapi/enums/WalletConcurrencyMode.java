@@ -0,0 +1,5 @@
+package com.digitalwallet.walletapi.enums;
+
+public enum WalletConcurrencyMode {
+    PESSIMISTIC, OPTIMISTIC, ATOMIC
+}
@@ -0,0 +1,9 @@
+package com.digitalwallet.walletapi.exception;
+
+public class ConcurrentWalletUpdateException extends BusinessException {
+
+    public ConcurrentWalletUpdateException(int attempts, Throwable cause) {
+        super("Wallet was updated concurrently, gave up after " + attempts + " attempts",
+              "CONCURRENT_UPDATE", cause);
+    }
+}
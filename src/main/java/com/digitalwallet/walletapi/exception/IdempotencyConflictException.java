@@ -0,0 +1,9 @@
+package com.digitalwallet.walletapi.exception;
+
+public class IdempotencyConflictException extends BusinessException {
+
+    public IdempotencyConflictException(String message, String errorCode) {
+        super(message, errorCode);
+    }
+
+}
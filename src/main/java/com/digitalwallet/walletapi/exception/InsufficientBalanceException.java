@@ -1,5 +1,7 @@
 package com.digitalwallet.walletapi.exception;
 
+import com.digitalwallet.walletapi.money.Money;
+
 import java.math.BigDecimal;
 
 public class InsufficientBalanceException extends BusinessException {
@@ -8,6 +10,10 @@ public class InsufficientBalanceException extends BusinessException {
         super(String.format("Insufficient balance. Requested: %s, Available: %s", 
               requestedAmount, availableBalance), "INSUFFICIENT_BALANCE");
     }
+
+    public InsufficientBalanceException(long requestedMinorUnits, long availableMinorUnits) {
+        this(Money.toDecimal(requestedMinorUnits), Money.toDecimal(availableMinorUnits));
+    }
     
     public InsufficientBalanceException(String message) {
         super(message, "INSUFFICIENT_BALANCE");
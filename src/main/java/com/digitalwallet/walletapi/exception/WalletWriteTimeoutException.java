@@ -0,0 +1,9 @@
+package com.digitalwallet.walletapi.exception;
+
+public class WalletWriteTimeoutException extends BusinessException {
+
+    public WalletWriteTimeoutException(long timeoutMs) {
+        super("Wallet write was not started within " + timeoutMs + " ms and was not applied",
+              "WRITE_TIMEOUT");
+    }
+}
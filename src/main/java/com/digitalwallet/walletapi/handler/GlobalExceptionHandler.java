@@ -58,7 +58,7 @@ public class GlobalExceptionHandler {
 
     /**
      * Handle authorization errors - 403 Forbidden
-     * Catches Spring Security's AccessDeniedException thrown by @PreAuthorize.
+     * Catches Spring Security's AccessDeniedException thrown when an @Authorize rule denies a call.
      */
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ApiResponse<Object>> handleAccessDeniedException(AccessDeniedException ex) {
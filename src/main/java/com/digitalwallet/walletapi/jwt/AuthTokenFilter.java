@@ -1,5 +1,7 @@
 package com.digitalwallet.walletapi.jwt;
 
+import com.digitalwallet.walletapi.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,9 +27,11 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
-     * Filter to validate JWT token and set authentication
+     * Filter to validate JWT token and set authentication. The principal comes from
+     * the token's claims; only tokens issued without roles are looked up.
      */
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, 
@@ -36,10 +40,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         try {
             String jwt = parseJwt(request);
             
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = jwt != null ? jwtUtils.parseJwtToken(jwt) : null;
+            if (claims != null && tokenRevocationService.isRevoked(claims.getId())) {
+                log.debug("Rejected revoked token {}", claims.getId());
+            } else if (claims != null) {
+                String username = claims.getSubject();
+
+                UserDetails userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                }
                 
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, 
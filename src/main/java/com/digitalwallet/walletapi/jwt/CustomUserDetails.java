@@ -1,6 +1,6 @@
 package com.digitalwallet.walletapi.jwt;
 
-import lombok.AllArgsConstructor;
+import com.digitalwallet.walletapi.enums.Role;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -9,7 +9,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
-@AllArgsConstructor
 @Getter
 public class CustomUserDetails implements UserDetails {
     
@@ -19,6 +18,21 @@ public class CustomUserDetails implements UserDetails {
     private Long customerId; 
     private boolean enabled;
 
+    /**
+     * One bit per {@link Role} held, worked out once from the authorities
+     */
+    private int roleMask;
+
+    public CustomUserDetails(String username, String password, Collection<? extends GrantedAuthority> authorities,
+                             Long customerId, boolean enabled) {
+        this.username = username;
+        this.password = password;
+        this.authorities = authorities;
+        this.customerId = customerId;
+        this.enabled = enabled;
+        this.roleMask = roleMask(authorities);
+    }
+
     /**
      * Create CustomUserDetails for employee
      */
@@ -42,6 +56,25 @@ public class CustomUserDetails implements UserDetails {
         return new CustomUserDetails(username, password, authorities, customerId, true);
     }
 
+    public boolean hasRole(Role role) {
+        return (roleMask & role.bit()) != 0;
+    }
+
+    public boolean isEmployee() {
+        return hasRole(Role.EMPLOYEE);
+    }
+
+    private static int roleMask(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            Role role = Role.fromAuthority(authority.getAuthority());
+            if (role != null) {
+                mask |= role.bit();
+            }
+        }
+        return mask;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -4,24 +4,69 @@ import com.digitalwallet.walletapi.entity.Customer;
 import com.digitalwallet.walletapi.entity.Employee;
 import com.digitalwallet.walletapi.repository.CustomerRepository;
 import com.digitalwallet.walletapi.repository.EmployeeRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Users looked up by employee username or customer TCKN, cached for a bounded time.
+ * {@link UserDetailsEvictionListener} evicts a user as soon as a change to the
+ * employee or customer row commits.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final CustomerRepository customerRepository;
     private final EmployeeRepository employeeRepository;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Value("${wallet.security.user-cache.max-size:10000}")
+    private long cacheMaxSize = 10_000;
+
+    @Value("${wallet.security.user-cache.ttl-seconds:300}")
+    private long cacheTtlSeconds = 300;
+
+    private Cache<String, CustomUserDetails> cache;
+
+    public CustomUserDetailsService(CustomerRepository customerRepository,
+                                    EmployeeRepository employeeRepository,
+                                    MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.employeeRepository = employeeRepository;
+
+        this.hitCounter = Counter.builder("wallet.userdetails.lookups")
+                .description("Total number of user lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+
+        this.missCounter = Counter.builder("wallet.userdetails.lookups")
+                .description("Total number of user lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
 
     /**
      * Loads a user by their username. It first searches for an employee,
@@ -33,12 +78,32 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CustomUserDetails cached = cache.getIfPresent(username);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+        missCounter.increment();
+
+        CustomUserDetails user = loadFromDatabase(username);
+        cache.put(username, user);
+        return user;
+    }
+
+    /**
+     * Forget a cached user, so that the next lookup reads the database again
+     */
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    private CustomUserDetails loadFromDatabase(String username) {
         log.debug("Attempting to load user by username: {}", username);
 
         Optional<Employee> employeeOpt = employeeRepository.findByUsername(username);
         if (employeeOpt.isPresent()) {
             Employee employee = employeeOpt.get();
-            log.info("Employee user found: {}", username);
+            log.debug("Employee user found: {}", username);
             
             List<String> roles = Arrays.asList(employee.getRoles().replace("ROLE_", "").split(","));
             
@@ -52,7 +117,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         Optional<Customer> customerOpt = customerRepository.findByTckn(username);
         if (customerOpt.isPresent()) {
             Customer customer = customerOpt.get();
-            log.info("Customer user found: {}", username);
+            log.debug("Customer user found: {}", username);
             
             return CustomUserDetails.createCustomer(
                     customer.getTckn(),
@@ -65,4 +130,4 @@ public class CustomUserDetailsService implements UserDetailsService {
         log.warn("User not found with username: {}", username);
         throw new UsernameNotFoundException("User not found with username: " + username);
     }
-}
\ No newline at end of file
+}
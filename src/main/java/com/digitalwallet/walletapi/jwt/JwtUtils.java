@@ -1,53 +1,95 @@
 package com.digitalwallet.walletapi.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Issues and verifies JWTs. The signing key and parser are built once; verified
+ * tokens are cached by their SHA-256 hash until they expire, so a session's repeated
+ * requests skip signature verification and claims parsing.
+ *
+ * Tokens carry the user's roles and customer ID, so an authenticated request is
+ * resolved from its claims alone. Each token also has an ID so that it can be revoked.
+ */
 @Component
 @Slf4j
 public class JwtUtils {
 
+    private static final String ROLES_CLAIM = "roles";
+    private static final String CUSTOMER_ID_CLAIM = "customerId";
+
     @Value("${wallet.app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${wallet.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${wallet.app.jwtCacheMaxSize:10000}")
+    private long jwtCacheMaxSize = 10_000;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtCacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
     /**
      * Generate JWT token from authentication
      */
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        Long customerId = userPrincipal instanceof CustomUserDetails user ? user.getCustomerId() : null;
+
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userPrincipal.getUsername())
+                .claim(ROLES_CLAIM, roles)
+                .claim(CUSTOMER_ID_CLAIM, customerId)
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Get username from JWT token
-     */
-    public String getUserNameFromJwtToken(String token) {
-        return getClaimsFromToken(token).getSubject();
-    }
-
-    /**
-     * Validate JWT token
+     * Verify a token and return its claims, or null when it is not valid
      */
-    public boolean validateJwtToken(String authToken) {
+    public Claims parseJwtToken(String authToken) {
         try {
-            getClaimsFromToken(authToken);
-            return true;
+            return getClaimsFromToken(authToken);
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -59,24 +101,84 @@ public class JwtUtils {
         } catch (Exception e) {
             log.error("JWT validation error: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * Build the principal from verified claims, or return null for a token issued
+     * without roles, which has to be resolved through the user details service
+     */
+    public CustomUserDetails getUserDetailsFromClaims(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new CustomUserDetails(claims.getSubject(), null, authorities,
+                claims.get(CUSTOMER_ID_CLAIM, Long.class), true);
+    }
+
+    /**
+     * Get username from JWT token
+     */
+    public String getUserNameFromJwtToken(String token) {
+        return getClaimsFromToken(token).getSubject();
     }
 
     /**
-     * Get signing key for JWT
+     * Validate JWT token
      */
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    public boolean validateJwtToken(String authToken) {
+        return parseJwtToken(authToken) != null;
     }
 
     /**
-     * Get all claims from token
+     * Get all claims from token, verifying it only when it is not cached yet
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        String key = hash(token);
+        Claims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(key, claims);
+        return claims;
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint token", e);
+        }
+    }
+
+    /**
+     * Keeps a verified token cached until its own expiration time
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.digitalwallet.walletapi.jwt;
+
+import com.digitalwallet.walletapi.entity.Customer;
+import com.digitalwallet.walletapi.entity.Employee;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts a cached user when its employee or customer row is updated or removed.
+ * Eviction waits for the commit, so a concurrent lookup cannot cache the old row again.
+ * A changed username or TCKN leaves the old key to expire with the cache TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserDetailsEvictionListener {
+
+    // Resolved lazily: the listener is created while the entity manager factory is being built
+    private final ObjectProvider<CustomUserDetailsService> userDetailsService;
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(Object entity) {
+        if (entity instanceof Employee employee) {
+            evictAfterCommit(employee.getUsername());
+        } else if (entity instanceof Customer customer) {
+            evictAfterCommit(customer.getTckn());
+        }
+    }
+
+    private void evictAfterCommit(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsService.getObject().evict(username);
+                }
+            });
+        } else {
+            userDetailsService.getObject().evict(username);
+        }
+    }
+}
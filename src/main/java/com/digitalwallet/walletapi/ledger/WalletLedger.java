@@ -0,0 +1,214 @@
+package com.digitalwallet.walletapi.ledger;
+
+import com.digitalwallet.walletapi.cache.WalletCache;
+import com.digitalwallet.walletapi.entity.Posting;
+import com.digitalwallet.walletapi.entity.Transaction;
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.LedgerAccount;
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.money.Money;
+import com.digitalwallet.walletapi.repository.PostingRepository;
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in double-entry ledger for wallet balances.
+ *
+ * Every balance change is written as an entry of postings that sum to zero: one
+ * leg against a wallet account (available or held) and one against a system
+ * account. Recording a deposit or settling a pending transaction only inserts
+ * rows, so it takes no wallet lock. A wallet's balance is its row plus its
+ * unmaterialized postings; a scheduled materializer folds committed postings into
+ * the wallet row under the wallet lock and flags them, which keeps the sums short.
+ * Approving or denying a pending transaction appends a compensating entry that
+ * moves the amount out of the held account.
+ */
+@Component
+@Slf4j
+public class WalletLedger {
+
+    private final PostingRepository postingRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletCache walletCache;
+    private final Counter postingCounter;
+    private final Counter materializedCounter;
+
+    @Value("${wallet.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${wallet.ledger.materialize-batch-size:100}")
+    private int materializeBatchSize = 100;
+
+    @Value("${wallet.engine.enabled:false}")
+    private boolean engineEnabled;
+
+    public WalletLedger(PostingRepository postingRepository,
+                        WalletRepository walletRepository,
+                        TransactionTemplate transactionTemplate,
+                        WalletCache walletCache,
+                        MeterRegistry meterRegistry) {
+        this.postingRepository = postingRepository;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.walletCache = walletCache;
+
+        this.postingCounter = Counter.builder("wallet.ledger.postings")
+                .description("Total number of ledger postings appended")
+                .register(meterRegistry);
+
+        this.materializedCounter = Counter.builder("wallet.ledger.materialized")
+                .description("Total number of wallet postings folded into wallet balances")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refuse to run next to the balance engine. With the ledger off, fold whatever
+     * it left behind into the wallet rows so the other write paths see exact balances.
+     */
+    @PostConstruct
+    public void start() {
+        if (enabled && engineEnabled) {
+            throw new IllegalStateException("wallet.ledger.enabled and wallet.engine.enabled cannot both be set");
+        }
+        if (enabled) {
+            log.info("Wallet ledger enabled");
+            return;
+        }
+        int folded;
+        while ((folded = materializeBatch()) > 0) {
+            log.info("Materialized outstanding postings of {} wallets", folded);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append the entry for a new transaction. Deposits come in from the counter
+     * account, withdrawals go out to it; pending amounts wait in the held account.
+     */
+    public void record(Transaction transaction) {
+        boolean approved = transaction.getStatus() == TransactionStatus.APPROVED;
+        LedgerAccount counter = counterAccount(transaction);
+        if (transaction.getType() == TransactionType.DEPOSIT) {
+            append(transaction, counter, approved ? LedgerAccount.WALLET_AVAILABLE : LedgerAccount.WALLET_HELD);
+        } else {
+            append(transaction, LedgerAccount.WALLET_AVAILABLE, approved ? counter : LedgerAccount.WALLET_HELD);
+        }
+    }
+
+    /**
+     * Append the compensating entry that settles a pending transaction
+     */
+    public void settle(Transaction transaction, TransactionStatus decision) {
+        boolean deposit = transaction.getType() == TransactionType.DEPOSIT;
+        boolean approved = decision == TransactionStatus.APPROVED;
+        LedgerAccount target = deposit == approved ? LedgerAccount.WALLET_AVAILABLE : counterAccount(transaction);
+        append(transaction, LedgerAccount.WALLET_HELD, target);
+    }
+
+    /**
+     * Add the unmaterialized postings of the given wallets to their outstanding balances
+     */
+    public void applyOutstanding(List<Wallet> wallets) {
+        if (!enabled || wallets.isEmpty()) {
+            return;
+        }
+        Map<Long, Wallet> byId = wallets.stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity(), (first, second) -> first));
+
+        for (PostingRepository.OutstandingTotal total : postingRepository.sumOutstanding(byId.keySet())) {
+            Wallet wallet = byId.get(total.getWalletId());
+            long amount = Money.toMinorUnits(total.getAmount());
+            wallet.setOutstandingBalance(Money.add(wallet.getOutstandingBalance(), amount));
+            if (total.getAccount() == LedgerAccount.WALLET_AVAILABLE) {
+                wallet.setOutstandingUsableBalance(Money.add(wallet.getOutstandingUsableBalance(), amount));
+            }
+        }
+    }
+
+    /**
+     * Fold committed postings into the wallet rows
+     */
+    @Scheduled(fixedDelayString = "${wallet.ledger.materialize-interval-ms:1000}")
+    public void materializeOutstanding() {
+        if (enabled) {
+            materializeBatch();
+        }
+    }
+
+    private int materializeBatch() {
+        List<Long> walletIds = postingRepository.findWalletIdsWithOutstanding(PageRequest.of(0, materializeBatchSize));
+        for (Long walletId : walletIds) {
+            transactionTemplate.executeWithoutResult(status -> materialize(walletId));
+        }
+        return walletIds.size();
+    }
+
+    /**
+     * Fold one wallet's postings into its row. Holding the wallet lock keeps this
+     * apart from withdrawals, which read the row and the unmaterialized sum together.
+     * The cached snapshot splits the balance the old way, so it is evicted on commit.
+     */
+    private void materialize(Long walletId) {
+        Wallet wallet = walletRepository.findByIdForUpdate(walletId).orElse(null);
+        if (wallet == null) {
+            return;
+        }
+        List<Posting> postings = postingRepository.findOutstandingByWalletId(walletId);
+        for (Posting posting : postings) {
+            wallet.setBalance(Money.add(wallet.getBalance(), posting.getAmount()));
+            if (posting.getAccount() == LedgerAccount.WALLET_AVAILABLE) {
+                wallet.setUsableBalance(Money.add(wallet.getUsableBalance(), posting.getAmount()));
+            }
+            posting.setMaterialized(true);
+        }
+        materializedCounter.increment(postings.size());
+        walletCache.evictWallet(walletId);
+    }
+
+    private LedgerAccount counterAccount(Transaction transaction) {
+        return transaction.getTransferId() != null ? LedgerAccount.TRANSFER_CLEARING : LedgerAccount.SETTLEMENT;
+    }
+
+    /**
+     * Move the transaction amount from one account to another as a balanced pair of postings
+     */
+    private void append(Transaction transaction, LedgerAccount from, LedgerAccount to) {
+        String entryId = UUID.randomUUID().toString();
+        postingRepository.saveAll(List.of(
+                posting(entryId, transaction, from, Money.subtract(0L, transaction.getAmount())),
+                posting(entryId, transaction, to, transaction.getAmount())));
+        postingCounter.increment(2);
+    }
+
+    private Posting posting(String entryId, Transaction transaction, LedgerAccount account, long amount) {
+        boolean walletAccount = account.isWalletAccount();
+        return Posting.builder()
+                .entryId(entryId)
+                .transaction(transaction)
+                .account(account)
+                .wallet(walletAccount ? transaction.getWallet() : null)
+                .amount(amount)
+                // System accounts have nothing to fold
+                .materialized(!walletAccount)
+                .build();
+    }
+}
@@ -2,9 +2,12 @@ package com.digitalwallet.walletapi.mapper;
 
 import com.digitalwallet.walletapi.dto.response.TransactionResponse;
 import com.digitalwallet.walletapi.entity.Transaction;
+import com.digitalwallet.walletapi.money.Money;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.mapstruct.ReportingPolicy;
+import java.math.BigDecimal;
 import java.util.List;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
@@ -14,10 +17,19 @@ public interface TransactionMapper {
      * Convert Transaction entity to TransactionResponse DTO
      */
     @Mapping(source = "wallet.id", target = "walletId")
+    @Mapping(source = "amount", target = "amount", qualifiedByName = "minorUnitsToDecimal")
     TransactionResponse toResponse(Transaction transaction);
     
     /**
      * Convert list of Transaction entities to list of TransactionResponse DTOs
      */
     List<TransactionResponse> toResponseList(List<Transaction> transactions);
+
+    /**
+     * Amounts are stored in minor units but exposed as decimals with two places
+     */
+    @Named("minorUnitsToDecimal")
+    default BigDecimal minorUnitsToDecimal(long minorUnits) {
+        return Money.toDecimal(minorUnits);
+    }
 }
\ No newline at end of file
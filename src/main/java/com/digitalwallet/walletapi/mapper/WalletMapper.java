@@ -3,6 +3,7 @@ package com.digitalwallet.walletapi.mapper;
 import com.digitalwallet.walletapi.dto.response.WalletResponse;
 import com.digitalwallet.walletapi.entity.Wallet;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 import java.util.List;
 
@@ -10,8 +11,10 @@ import java.util.List;
 public interface WalletMapper {
     
     /**
-     * Convert Wallet entity to WalletResponse DTO
+     * Convert Wallet entity to WalletResponse DTO. Balances include any stripes.
      */
+    @Mapping(source = "totalBalance", target = "balance")
+    @Mapping(source = "totalUsableBalance", target = "usableBalance")
     WalletResponse toResponse(Wallet wallet);
     
     /**
@@ -0,0 +1,25 @@
+package com.digitalwallet.walletapi.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores a minor-unit {@code long} amount in a DECIMAL(19,2) column, so entities can
+ * do balance arithmetic on primitives while the schema and its values stay unchanged.
+ * Applied explicitly with {@code @Convert}; it must not be auto-applied to every Long.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+        return minorUnits == null ? null : Money.toDecimal(minorUnits);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.toMinorUnits(amount);
+    }
+}
@@ -0,0 +1,176 @@
+package com.digitalwallet.walletapi.ownership;
+
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Wallet ID to customer ID map kept in memory, so that ownership checks do not
+ * reach the database.
+ *
+ * A wallet never changes owner and is never deleted, so entries are only ever
+ * added: the index is loaded once the application is ready and extended when a
+ * wallet is created, after its transaction commits. A wallet missing from the
+ * index may still exist, created on another instance or before the load
+ * finished, so a miss is confirmed with a single-column lookup by primary key and
+ * the owner it finds is added. Only IDs that match no wallet reach the database
+ * more than once.
+ *
+ * Entries live in an open-addressed table of primitive longs. Writers are
+ * serialized; readers take no lock and see an entry only once its owner has been
+ * written, because the wallet ID is published after it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WalletOwnershipIndex {
+
+    private static final int LOAD_CHUNK_SIZE = 10000;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final WalletRepository walletRepository;
+
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+
+    /**
+     * Load the owner of every wallet, in chunks of ascending wallet ID
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long afterId = 0L;
+        List<WalletRepository.WalletOwner> chunk;
+        do {
+            chunk = walletRepository.findOwnersAfter(afterId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            for (WalletRepository.WalletOwner owner : chunk) {
+                put(owner.getWalletId(), owner.getCustomerId());
+                afterId = owner.getWalletId();
+            }
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+        log.info("Loaded the owners of {} wallets", size());
+    }
+
+    /**
+     * Whether the wallet belongs to the customer
+     */
+    public boolean isOwner(Long walletId, Long customerId) {
+        if (walletId == null || customerId == null || walletId <= 0) {
+            return false;
+        }
+        long owner = table.get(walletId);
+        if (owner == Table.ABSENT) {
+            owner = walletRepository.findCustomerIdById(walletId)
+                    .map(found -> {
+                        put(walletId, found);
+                        return found;
+                    })
+                    .orElse(Table.ABSENT);
+        }
+        return owner == customerId;
+    }
+
+    /**
+     * Record a new wallet once the current transaction, if any, commits
+     */
+    public void walletCreated(Long walletId, Long customerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(walletId, customerId);
+                }
+            });
+        } else {
+            put(walletId, customerId);
+        }
+    }
+
+    public synchronized int size() {
+        return table.size;
+    }
+
+    private synchronized void put(long walletId, long customerId) {
+        Table current = table;
+        if ((current.size + 1) * 2 > current.capacity()) {
+            current = current.grow();
+            table = current;
+        }
+        current.put(walletId, customerId);
+    }
+
+    /**
+     * Linear-probing hash table from positive wallet IDs to customer IDs, with 0
+     * marking an empty slot. A slot's owner is written before its key is released,
+     * so a reader that acquires the key also sees the owner.
+     */
+    private static final class Table {
+
+        static final long ABSENT = -1L;
+
+        private final AtomicLongArray walletIds;
+        private final long[] customerIds;
+        private final int mask;
+        private int size;
+
+        Table(int capacity) {
+            this.walletIds = new AtomicLongArray(capacity);
+            this.customerIds = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return customerIds.length;
+        }
+
+        long get(long walletId) {
+            for (int slot = slot(walletId); ; slot = (slot + 1) & mask) {
+                long key = walletIds.getAcquire(slot);
+                if (key == walletId) {
+                    return customerIds[slot];
+                }
+                if (key == 0L) {
+                    return ABSENT;
+                }
+            }
+        }
+
+        void put(long walletId, long customerId) {
+            for (int slot = slot(walletId); ; slot = (slot + 1) & mask) {
+                long key = walletIds.getPlain(slot);
+                if (key == walletId) {
+                    return;
+                }
+                if (key == 0L) {
+                    customerIds[slot] = customerId;
+                    walletIds.setRelease(slot, walletId);
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        Table grow() {
+            Table grown = new Table(capacity() * 2);
+            for (int slot = 0; slot < capacity(); slot++) {
+                long key = walletIds.getPlain(slot);
+                if (key != 0L) {
+                    grown.put(key, customerIds[slot]);
+                }
+            }
+            return grown;
+        }
+
+        private int slot(long walletId) {
+            long hash = walletId * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
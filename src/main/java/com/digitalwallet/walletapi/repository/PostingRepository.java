@@ -0,0 +1,38 @@
+package com.digitalwallet.walletapi.repository;
+
+import com.digitalwallet.walletapi.entity.Posting;
+import com.digitalwallet.walletapi.enums.LedgerAccount;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostingRepository extends JpaRepository<Posting, Long> {
+
+    /**
+     * Summed unmaterialized postings of one wallet account. SUM bypasses the
+     * minor-units converter, so the amount is the raw decimal column value.
+     */
+    interface OutstandingTotal {
+        Long getWalletId();
+        LedgerAccount getAccount();
+        BigDecimal getAmount();
+    }
+
+    @Query("SELECT p.wallet.id AS walletId, p.account AS account, SUM(p.amount) AS amount " +
+           "FROM Posting p WHERE p.wallet.id IN :walletIds AND p.materialized = false " +
+           "GROUP BY p.wallet.id, p.account")
+    List<OutstandingTotal> sumOutstanding(@Param("walletIds") Collection<Long> walletIds);
+
+    @Query("SELECT p FROM Posting p WHERE p.wallet.id = :walletId AND p.materialized = false")
+    List<Posting> findOutstandingByWalletId(@Param("walletId") Long walletId);
+
+    @Query("SELECT DISTINCT p.wallet.id FROM Posting p WHERE p.wallet IS NOT NULL AND p.materialized = false")
+    List<Long> findWalletIdsWithOutstanding(Pageable pageable);
+}
@@ -3,24 +3,84 @@ package com.digitalwallet.walletapi.repository;
 import com.digitalwallet.walletapi.entity.Transaction;
 import com.digitalwallet.walletapi.enums.TransactionStatus;
 import com.digitalwallet.walletapi.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    
-    List<Transaction> findByWalletIdOrderByCreatedAtDesc(Long walletId);
-    
-    List<Transaction> findByWalletIdAndStatus(Long walletId, TransactionStatus status);
-    
-    List<Transaction> findByWalletIdAndType(Long walletId, TransactionType type);
+
+    interface StatusCount {
+        TransactionStatus getStatus();
+        long getCount();
+    }
+
+    /**
+     * Newest transactions of a wallet, read as a range scan of the (wallet_id, created_at, id) index
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findFirstPage(@Param("walletId") Long walletId, Pageable pageable);
+
+    /**
+     * Transactions of a wallet that come after the given (created_at, id) position
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId " +
+           "AND (t.createdAt, t.id) < (:createdAt, :id) ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findPageAfter(@Param("walletId") Long walletId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
+    /**
+     * Complete history of a wallet, oldest first, read through a cursor in chunks of
+     * the fetch size. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId ORDER BY t.createdAt, t.id")
+    Stream<Transaction> streamByWalletId(@Param("walletId") Long walletId);
+
+    /*
+     * Written out rather than derived: a derived findByWalletId... query joins wallets
+     * and filters on wallets.id, which keeps the transactions indexes from being used.
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId AND t.status = :status")
+    List<Transaction> findByWalletIdAndStatus(@Param("walletId") Long walletId,
+                                              @Param("status") TransactionStatus status);
+
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId AND t.type = :type")
+    List<Transaction> findByWalletIdAndType(@Param("walletId") Long walletId, @Param("type") TransactionType type);
+
+    List<Transaction> findByTransferId(String transferId);
     
     /**
      * Find pending transactions by wallet ID
      */
     @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId AND t.status = 'PENDING'")
     List<Transaction> findPendingTransactionsByWalletId(@Param("walletId") Long walletId);
-}
\ No newline at end of file
+
+    /**
+     * Number of transactions in each status, across all wallets
+     */
+    @Query("SELECT t.status AS status, COUNT(t) AS count FROM Transaction t GROUP BY t.status")
+    List<StatusCount> countByStatus();
+
+    /**
+     * Move a transaction out of PENDING. Returns 0 when it was already decided.
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :status, t.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE t.id = :transactionId AND t.status = 'PENDING'")
+    int decidePending(@Param("transactionId") Long transactionId, @Param("status") TransactionStatus status);
+}
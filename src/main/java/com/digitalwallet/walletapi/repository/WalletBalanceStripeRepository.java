@@ -0,0 +1,58 @@
+package com.digitalwallet.walletapi.repository;
+
+import com.digitalwallet.walletapi.entity.WalletBalanceStripe;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WalletBalanceStripeRepository extends JpaRepository<WalletBalanceStripe, Long> {
+
+    /**
+     * Summed stripe balances of one wallet. SUM bypasses the minor-units converter,
+     * so these are the raw decimal column values.
+     */
+    interface StripeTotals {
+        Long getWalletId();
+        BigDecimal getBalance();
+        BigDecimal getUsableBalance();
+    }
+
+    /**
+     * Lock all stripes of a wallet, in stripe order so concurrent consolidations cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM WalletBalanceStripe s WHERE s.wallet.id = :walletId ORDER BY s.stripeIndex")
+    List<WalletBalanceStripe> findByWalletIdForUpdate(@Param("walletId") Long walletId);
+
+    /**
+     * Atomically add to one stripe (minor units). Returns 0 when the stripe does not exist
+     * (the wallet is not striped, or was re-striped concurrently).
+     */
+    @Modifying
+    @Query("UPDATE WalletBalanceStripe s SET s.balance = s.balance + :balanceDelta, " +
+           "s.usableBalance = s.usableBalance + :usableDelta " +
+           "WHERE s.wallet.id = :walletId AND s.stripeIndex = :stripeIndex")
+    int credit(@Param("walletId") Long walletId,
+               @Param("stripeIndex") int stripeIndex,
+               @Param("balanceDelta") long balanceDelta,
+               @Param("usableDelta") long usableDelta);
+
+    @Query("SELECT s.wallet.id AS walletId, SUM(s.balance) AS balance, SUM(s.usableBalance) AS usableBalance " +
+           "FROM WalletBalanceStripe s WHERE s.wallet.id IN :walletIds GROUP BY s.wallet.id")
+    List<StripeTotals> sumByWalletIds(@Param("walletIds") Collection<Long> walletIds);
+
+    @Modifying
+    @Query("DELETE FROM WalletBalanceStripe s WHERE s.wallet.id = :walletId")
+    int deleteByWalletId(@Param("walletId") Long walletId);
+}
@@ -5,31 +5,86 @@ import com.digitalwallet.walletapi.enums.Currency;
 
 import jakarta.persistence.LockModeType;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
+
+    interface WalletOwner {
+        Long getWalletId();
+        Long getCustomerId();
+    }
+
+    interface WalletRevision {
+        Long getId();
+        Long getCustomerId();
+        Currency getCurrency();
+        Integer getStripeCount();
+        Long getVersion();
+    }
     
-    List<Wallet> findByCustomerId(Long customerId);
-    
-    List<Wallet> findByCustomerIdAndCurrency(Long customerId, Currency currency);
-    
+    /*
+     * Written out rather than derived: a derived findByCustomerId... query joins customers
+     * and filters on customers.id, which keeps the wallets indexes from being used.
+     */
+    @Query("SELECT w FROM Wallet w WHERE w.customer.id = :customerId")
+    List<Wallet> findByCustomerId(@Param("customerId") Long customerId);
+
     Optional<Wallet> findByIdAndCustomerId(Long walletId, Long customerId);
+
+    /**
+     * IDs of a customer's wallets in ascending order, read from the customer index alone
+     */
+    @Query("SELECT w.id FROM Wallet w WHERE w.customer.id = :customerId ORDER BY w.id")
+    List<Long> findIdsByCustomerId(@Param("customerId") Long customerId);
+
+    /**
+     * Owner of a wallet, read from the wallet row alone
+     */
+    @Query("SELECT w.customer.id FROM Wallet w WHERE w.id = :walletId")
+    Optional<Long> findCustomerIdById(@Param("walletId") Long walletId);
+
+    /**
+     * Owners of the wallets after the given ID, in ascending wallet ID order
+     */
+    @Query("SELECT w.id AS walletId, w.customer.id AS customerId FROM Wallet w WHERE w.id > :afterId ORDER BY w.id")
+    List<WalletOwner> findOwnersAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * What a wallet's ETag is computed from, without loading the entity
+     */
+    @Query("SELECT w.id AS id, w.customer.id AS customerId, w.currency AS currency, " +
+           "w.stripeCount AS stripeCount, w.version AS version FROM Wallet w WHERE w.id = :walletId")
+    Optional<WalletRevision> findRevisionById(@Param("walletId") Long walletId);
+
+    /**
+     * Revisions of a customer's wallets in ascending wallet ID order
+     */
+    @Query("SELECT w.id AS id, w.customer.id AS customerId, w.currency AS currency, " +
+           "w.stripeCount AS stripeCount, w.version AS version FROM Wallet w " +
+           "WHERE w.customer.id = :customerId ORDER BY w.id")
+    List<WalletRevision> findRevisionsByCustomerId(@Param("customerId") Long customerId);
+
+    List<Wallet> findByStripeCountGreaterThan(Integer stripeCount);
+
+    long countByIdInAndCustomerId(Collection<Long> walletIds, Long customerId);
     
     /**
-     * Find wallets by customer ID with minimum balance filter
+     * Find wallets by customer ID with minimum balance filter (minor units)
      */
     @Query("SELECT w FROM Wallet w WHERE w.customer.id = :customerId AND w.balance >= :minBalance")
     List<Wallet> findByCustomerIdWithMinBalance(@Param("customerId") Long customerId, 
-                                                @Param("minBalance") BigDecimal minBalance);
+                                                @Param("minBalance") long minBalance);
 
     /**
      * Find wallet by ID with PESSIMISTIC_WRITE lock for update operations
@@ -37,4 +92,57 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT w FROM Wallet w WHERE w.id = :walletId")
     Optional<Wallet> findByIdForUpdate(@Param("walletId") Long walletId);
-}
\ No newline at end of file
+
+    /**
+     * Lock several wallets in ascending ID order, so that concurrent multi-wallet
+     * operations always acquire row locks in the same order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :walletIds ORDER BY w.id")
+    List<Wallet> findAllByIdForUpdate(@Param("walletIds") Collection<Long> walletIds);
+
+    /**
+     * Atomically add to a wallet's balances (minor units). Returns 0 when the wallet does not exist.
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :balanceDelta, " +
+           "w.usableBalance = w.usableBalance + :usableDelta, w.version = w.version + 1 " +
+           "WHERE w.id = :walletId")
+    int credit(@Param("walletId") Long walletId,
+               @Param("balanceDelta") long balanceDelta,
+               @Param("usableDelta") long usableDelta);
+
+    /**
+     * Atomically reserve a withdrawal to an external account. Returns 0 when the wallet
+     * does not exist, is not active for withdraw, or has less usable balance than the amount.
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :balanceDelta, " +
+           "w.usableBalance = w.usableBalance - :amount, w.version = w.version + 1 " +
+           "WHERE w.id = :walletId AND w.usableBalance >= :amount AND w.activeForWithdraw = true")
+    int debitForWithdraw(@Param("walletId") Long walletId,
+                         @Param("amount") long amount,
+                         @Param("balanceDelta") long balanceDelta);
+
+    /**
+     * Atomically reserve a shopping payment. Returns 0 when the wallet does not exist,
+     * is not active for shopping, or has less usable balance than the amount.
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :balanceDelta, " +
+           "w.usableBalance = w.usableBalance - :amount, w.version = w.version + 1 " +
+           "WHERE w.id = :walletId AND w.usableBalance >= :amount AND w.activeForShopping = true")
+    int debitForShopping(@Param("walletId") Long walletId,
+                         @Param("amount") long amount,
+                         @Param("balanceDelta") long balanceDelta);
+
+    /**
+     * Overwrite a wallet's balances (minor units) with values computed elsewhere (the in-memory balance engine)
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = :balance, w.usableBalance = :usableBalance, " +
+           "w.version = w.version + 1 WHERE w.id = :walletId")
+    int overwriteBalances(@Param("walletId") Long walletId,
+                          @Param("balance") long balance,
+                          @Param("usableBalance") long usableBalance);
+}
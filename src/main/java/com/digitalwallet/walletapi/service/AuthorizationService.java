@@ -1,5 +1,7 @@
 package com.digitalwallet.walletapi.service;
 
+import java.util.Collection;
+
 public interface AuthorizationService {
 
     /**
@@ -11,4 +13,9 @@ public interface AuthorizationService {
      * Checks if the authenticated user is the owner of the specified wallet.
      */
     boolean isWalletOwner(Long walletId);
+
+    /**
+     * Checks if the authenticated user owns every one of the specified wallets.
+     */
+    boolean isWalletOwnerOfAll(Collection<Long> walletIds);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.digitalwallet.walletapi.service;
+
+import com.digitalwallet.walletapi.response.ApiResponse;
+import org.springframework.http.ResponseEntity;
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Run a request at most once per idempotency key. A repeated key with the same
+     * request replays the stored response; without a key the action simply runs.
+     */
+    <T> ResponseEntity<ApiResponse<T>> execute(String idempotencyKey, String operation, Object request,
+                                               Supplier<ResponseEntity<ApiResponse<T>>> action);
+}
@@ -0,0 +1,17 @@
+package com.digitalwallet.walletapi.service;
+
+import java.util.Date;
+
+public interface TokenRevocationService {
+
+    /**
+     * Revoke a token until it expires. Other instances pick the revocation up on
+     * their next refresh.
+     */
+    void revoke(String tokenId, Date expiresAt);
+
+    /**
+     * Whether a token was revoked, answered from memory
+     */
+    boolean isRevoked(String tokenId);
+}
@@ -0,0 +1,14 @@
+package com.digitalwallet.walletapi.service;
+
+import com.digitalwallet.walletapi.enums.ExportFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TransactionExportService {
+
+    /**
+     * Write a wallet's complete transaction history, oldest first, to the stream
+     * row by row. Returns the number of transactions written.
+     */
+    long exportTransactions(Long walletId, ExportFormat format, OutputStream out) throws IOException;
+}
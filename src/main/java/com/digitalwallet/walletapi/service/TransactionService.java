@@ -2,14 +2,15 @@ package com.digitalwallet.walletapi.service;
 
 import com.digitalwallet.walletapi.dto.request.ApproveTransactionRequest;
 import com.digitalwallet.walletapi.entity.Transaction;
-import java.util.List;
+import com.digitalwallet.walletapi.pagination.KeysetPage;
 
 public interface TransactionService {
     
     /**
-     * List all transactions for a wallet
+     * List a page of a wallet's transactions, newest first. A null cursor starts
+     * at the newest transaction; a null limit uses the default page size.
      */
-    List<Transaction> listTransactions(Long walletId);
+    KeysetPage<Transaction> listTransactions(Long walletId, String cursor, Integer limit);
     
     /**
      * Get transaction by ID
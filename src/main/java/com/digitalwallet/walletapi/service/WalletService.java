@@ -1,8 +1,11 @@
 package com.digitalwallet.walletapi.service;
 
+import com.digitalwallet.walletapi.dto.request.BatchOperationRequest;
 import com.digitalwallet.walletapi.dto.request.CreateWalletRequest;
 import com.digitalwallet.walletapi.dto.request.DepositRequest;
+import com.digitalwallet.walletapi.dto.request.TransferRequest;
 import com.digitalwallet.walletapi.dto.request.WithdrawRequest;
+import com.digitalwallet.walletapi.dto.response.BatchOperationResponse;
 import com.digitalwallet.walletapi.entity.Wallet;
 import com.digitalwallet.walletapi.enums.Currency;
 import java.util.List;
@@ -28,6 +31,22 @@ public interface WalletService {
      * Get wallet by ID and customer ID (for security)
      */
     Wallet getWallet(Long walletId, Long customerId);
+
+    /**
+     * Revisions of a customer's wallets (ID, owner, currency, version and outstanding
+     * amounts) read without loading the wallets, optionally filtered by currency
+     */
+    List<Wallet> listWalletRevisions(Long customerId, Currency currency);
+
+    /**
+     * Revision of a wallet read without loading it, with the same ownership check as getWallet
+     */
+    Wallet getWalletRevision(Long walletId, Long customerId);
+
+    /**
+     * Split a hot wallet's balance over several stripe rows (0 turns striping off)
+     */
+    Wallet configureStripes(Long walletId, int stripeCount);
     
     /**
      * Make deposit to wallet
@@ -38,4 +57,14 @@ public interface WalletService {
      * Make withdraw from wallet
      */
     void withdraw(WithdrawRequest request);
+
+    /**
+     * Transfer money from one wallet to another atomically
+     */
+    void transfer(TransferRequest request);
+
+    /**
+     * Apply a batch of deposits and withdrawals and report the outcome of every item
+     */
+    BatchOperationResponse processBatch(BatchOperationRequest request);
 }
\ No newline at end of file
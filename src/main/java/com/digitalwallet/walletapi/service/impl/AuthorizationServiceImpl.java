@@ -1,18 +1,21 @@
 package com.digitalwallet.walletapi.service.impl;
 
 import com.digitalwallet.walletapi.jwt.CustomUserDetails;
-import com.digitalwallet.walletapi.repository.WalletRepository;
+import com.digitalwallet.walletapi.ownership.WalletOwnershipIndex;
 import com.digitalwallet.walletapi.service.AuthorizationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashSet;
+
 @Service("authService")
 @RequiredArgsConstructor
 public class AuthorizationServiceImpl implements AuthorizationService {
 
-    private final WalletRepository walletRepository;
+    private final WalletOwnershipIndex walletOwnershipIndex;
 
     @Override
     public boolean isAccountOwner(Long targetCustomerId) {
@@ -22,7 +25,7 @@ public class AuthorizationServiceImpl implements AuthorizationService {
         }
 
         // Employees can access any customer's data.
-        if (isEmployee(userDetails)) {
+        if (userDetails.isEmployee()) {
             return true;
         }
 
@@ -39,7 +42,7 @@ public class AuthorizationServiceImpl implements AuthorizationService {
         }
 
         // Employees can access any wallet.
-        if (isEmployee(userDetails)) {
+        if (userDetails.isEmployee()) {
             return true;
         }
 
@@ -48,8 +51,33 @@ public class AuthorizationServiceImpl implements AuthorizationService {
         if (authenticatedCustomerId == null) {
             return false;
         }
-        
-        return walletRepository.findByIdAndCustomerId(walletId, authenticatedCustomerId).isPresent();
+
+        return walletOwnershipIndex.isOwner(walletId, authenticatedCustomerId);
+    }
+
+    @Override
+    public boolean isWalletOwnerOfAll(Collection<Long> walletIds) {
+        CustomUserDetails userDetails = getAuthenticatedUserDetails();
+        if (userDetails == null) {
+            return false;
+        }
+
+        // Employees can access any wallet.
+        if (userDetails.isEmployee()) {
+            return true;
+        }
+
+        Long authenticatedCustomerId = userDetails.getCustomerId();
+        if (authenticatedCustomerId == null) {
+            return false;
+        }
+
+        for (Long walletId : new HashSet<>(walletIds)) {
+            if (!walletOwnershipIndex.isOwner(walletId, authenticatedCustomerId)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -63,14 +91,4 @@ public class AuthorizationServiceImpl implements AuthorizationService {
         }
         return (CustomUserDetails) authentication.getPrincipal();
     }
-
-    /**
-     * Checks if the user has the 'EMPLOYEE' role.
-     * @param userDetails The user details to check.
-     * @return true if the user is an employee, false otherwise.
-     */
-    private boolean isEmployee(CustomUserDetails userDetails) {
-        return userDetails.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_EMPLOYEE"));
-    }
 }
\ No newline at end of file
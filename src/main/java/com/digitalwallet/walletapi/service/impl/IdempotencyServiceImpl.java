@@ -0,0 +1,312 @@
+package com.digitalwallet.walletapi.service.impl;
+
+import com.digitalwallet.walletapi.entity.IdempotencyRecord;
+import com.digitalwallet.walletapi.enums.IdempotencyStatus;
+import com.digitalwallet.walletapi.exception.BusinessException;
+import com.digitalwallet.walletapi.exception.IdempotencyConflictException;
+import com.digitalwallet.walletapi.repository.IdempotencyRecordRepository;
+import com.digitalwallet.walletapi.response.ApiResponse;
+import com.digitalwallet.walletapi.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency keys backed by a bounded Caffeine cache and the idempotency_records table.
+ *
+ * A key is scoped to the authenticated user. The first request claims the key by
+ * inserting an IN_PROGRESS row; the unique constraint makes the claim safe across
+ * instances. When the action succeeds its response is stored and cached, and any
+ * repeat is answered from the cache or the table without running the action again.
+ * Concurrent duplicates on the same instance wait for the in-flight original.
+ * When the action fails the claim is released, so a retry runs it again.
+ *
+ * The action commits on its own, through whichever write path it takes, so the
+ * response is stored in a second step. Once the action has committed its outcome
+ * is never turned into an error: if storing the response fails, the caller still
+ * gets it, repeats on this instance replay it from the cache, and the response is
+ * written to the record in the background until it sticks.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, StoredResponse> unwrittenResponses = new ConcurrentHashMap<>();
+    private final Counter cacheReplayCounter;
+    private final Counter databaseReplayCounter;
+    private final Counter waitCounter;
+
+    @Value("${wallet.idempotency.cache.max-size:100000}")
+    private long cacheMaxSize = 100_000;
+
+    @Value("${wallet.idempotency.retention-hours:24}")
+    private long retentionHours = 24;
+
+    @Value("${wallet.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs = 30_000;
+
+    private Cache<String, StoredResponse> cache;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository recordRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.recordRepository = recordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+
+        this.cacheReplayCounter = Counter.builder("wallet.idempotency.replays")
+                .description("Total number of duplicate requests answered with a stored response")
+                .tag("source", "cache")
+                .register(meterRegistry);
+
+        this.databaseReplayCounter = Counter.builder("wallet.idempotency.replays")
+                .description("Total number of duplicate requests answered with a stored response")
+                .tag("source", "database")
+                .register(meterRegistry);
+
+        this.waitCounter = Counter.builder("wallet.idempotency.waits")
+                .description("Total number of duplicate requests that waited for the in-flight original")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofHours(retentionHours))
+                .build();
+    }
+
+    @Override
+    public <T> ResponseEntity<ApiResponse<T>> execute(String idempotencyKey, String operation, Object request,
+                                                      Supplier<ResponseEntity<ApiResponse<T>>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters",
+                    "INVALID_IDEMPOTENCY_KEY");
+        }
+
+        String scope = currentScope();
+        String cacheKey = scope + ":" + idempotencyKey;
+        String requestHash = hash(operation, request);
+
+        while (true) {
+            StoredResponse cached = cache.getIfPresent(cacheKey);
+            if (cached != null) {
+                cacheReplayCounter.increment();
+                return replay(cached, requestHash);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> original = inFlight.putIfAbsent(cacheKey, mine);
+            if (original != null) {
+                StoredResponse response = awaitOriginal(original);
+                if (response != null) {
+                    return replay(response, requestHash);
+                }
+                // The original failed and released its claim; try to claim it ourselves
+                continue;
+            }
+
+            try {
+                return runClaimed(scope, idempotencyKey, cacheKey, requestHash, action, mine);
+            } catch (RuntimeException e) {
+                // Never leave duplicates waiting on an original that ended without a response
+                mine.complete(null);
+                throw e;
+            } finally {
+                inFlight.remove(cacheKey, mine);
+            }
+        }
+    }
+
+    /**
+     * Remove records (and thereby keys) older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${wallet.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer removed = transactionTemplate.execute(status ->
+                recordRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (removed != null && removed > 0) {
+            log.info("Purged {} expired idempotency records", removed);
+        }
+    }
+
+    /**
+     * Store the responses whose first write failed after their action had committed
+     */
+    @Scheduled(fixedDelayString = "${wallet.idempotency.completion-retry-ms:5000}")
+    public void retryCompletions() {
+        unwrittenResponses.forEach((claimId, stored) -> {
+            try {
+                storeResponse(claimId, stored);
+                unwrittenResponses.remove(claimId, stored);
+            } catch (RuntimeException e) {
+                log.warn("Storing the response of idempotency record {} failed again: {}", claimId, e.getMessage());
+            }
+        });
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> runClaimed(String scope, String idempotencyKey, String cacheKey,
+                                                          String requestHash,
+                                                          Supplier<ResponseEntity<ApiResponse<T>>> action,
+                                                          CompletableFuture<StoredResponse> future) {
+        Long claimId;
+        try {
+            claimId = transactionTemplate.execute(status -> recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                    .scope(scope)
+                    .idempotencyKey(idempotencyKey)
+                    .requestHash(requestHash)
+                    .status(IdempotencyStatus.IN_PROGRESS)
+                    .build()).getId());
+        } catch (DataIntegrityViolationException e) {
+            StoredResponse stored = loadCompleted(scope, idempotencyKey);
+            cache.put(cacheKey, stored);
+            future.complete(stored);
+            databaseReplayCounter.increment();
+            return replay(stored, requestHash);
+        }
+
+        ResponseEntity<ApiResponse<T>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> recordRepository.deleteById(claimId));
+            future.complete(null);
+            throw e;
+        }
+
+        // The action has committed: from here on its response is what the caller gets
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                toJson(response.getBody()));
+        cache.put(cacheKey, stored);
+        future.complete(stored);
+        try {
+            storeResponse(claimId, stored);
+        } catch (RuntimeException e) {
+            log.error("Storing the response of idempotency record {} failed, retrying in the background: {}",
+                    claimId, e.getMessage());
+            unwrittenResponses.put(claimId, stored);
+        }
+        return response;
+    }
+
+    private void storeResponse(Long claimId, StoredResponse stored) {
+        transactionTemplate.executeWithoutResult(status -> recordRepository.findById(claimId).ifPresent(claim -> {
+            claim.setStatus(IdempotencyStatus.COMPLETED);
+            claim.setResponseStatus(stored.status());
+            claim.setResponseBody(stored.body());
+        }));
+    }
+
+    /**
+     * Wait for an in-flight original. Returns null when it failed without a response.
+     */
+    private StoredResponse awaitOriginal(CompletableFuture<StoredResponse> original) {
+        waitCounter.increment();
+        try {
+            return original.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private StoredResponse loadCompleted(String scope, String idempotencyKey) {
+        IdempotencyRecord record = recordRepository.findByScopeAndIdempotencyKey(scope, idempotencyKey)
+                .orElseThrow(this::inProgress);
+        if (record.getStatus() != IdempotencyStatus.COMPLETED) {
+            throw inProgress();
+        }
+        return new StoredResponse(record.getRequestHash(), record.getResponseStatus(), record.getResponseBody());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<ApiResponse<T>> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request",
+                    "IDEMPOTENCY_KEY_REUSED");
+        }
+        try {
+            ApiResponse<T> body = objectMapper.readValue(stored.body(), ApiResponse.class);
+            return ResponseEntity.status(stored.status()).header("Idempotent-Replayed", "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private IdempotencyConflictException inProgress() {
+        return new IdempotencyConflictException("A request with this Idempotency-Key is still being processed",
+                "IDEMPOTENCY_IN_PROGRESS");
+    }
+
+    private String currentScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store idempotent response", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int status, String body) {
+    }
+}
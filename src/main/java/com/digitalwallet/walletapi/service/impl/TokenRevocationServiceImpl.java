@@ -0,0 +1,72 @@
+package com.digitalwallet.walletapi.service.impl;
+
+import com.digitalwallet.walletapi.entity.RevokedToken;
+import com.digitalwallet.walletapi.repository.RevokedTokenRepository;
+import com.digitalwallet.walletapi.service.TokenRevocationService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked tokens backed by the revoked_tokens table and mirrored in memory, so the
+ * check on every request never reaches the database.
+ *
+ * A revocation is visible on the instance that made it at once, and on the others
+ * after their next refresh. Rows are only ever removed once the token has expired,
+ * so a refresh adds entries and drops expired ones but never loses a revocation.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+
+    @Override
+    @Transactional
+    public void revoke(String tokenId, Date expiresAt) {
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.save(RevokedToken.builder().tokenId(tokenId).expiresAt(expiry).build());
+        revoked.put(tokenId, expiry);
+        log.info("Revoked token {} until {}", tokenId, expiry);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Load revocations made on other instances and forget expired ones
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${wallet.security.revocation-refresh-interval-ms:30000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findUnexpired(now)
+                .forEach(token -> revoked.put(token.getTokenId(), token.getExpiresAt()));
+        revoked.values().removeIf(expiry -> expiry.isBefore(now));
+    }
+
+    /**
+     * Remove revocations of tokens that have expired
+     */
+    @Scheduled(fixedDelayString = "${wallet.security.revocation-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Purged {} expired token revocations", removed);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.digitalwallet.walletapi.service.impl;
+
+import com.digitalwallet.walletapi.dto.response.TransactionResponse;
+import com.digitalwallet.walletapi.entity.Transaction;
+import com.digitalwallet.walletapi.enums.ExportFormat;
+import com.digitalwallet.walletapi.mapper.TransactionMapper;
+import com.digitalwallet.walletapi.repository.TransactionRepository;
+import com.digitalwallet.walletapi.service.TransactionExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams a wallet's transaction history straight from a database cursor to the
+ * response. Each row is written and then detached, so neither the persistence
+ * context nor the output buffer grows with the size of the history.
+ */
+@Service
+@Slf4j
+public class TransactionExportServiceImpl implements TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "id,walletId,type,amount,oppositePartyType,oppositeParty,status,transferId,createdAt,updatedAt";
+
+    /**
+     * Rows written between flushes, matching the JDBC fetch size of the export query
+     */
+    private static final int FLUSH_EVERY = 500;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter rowWriter;
+    private final Map<ExportFormat, Counter> exportedCounters = new EnumMap<>(ExportFormat.class);
+
+    public TransactionExportServiceImpl(TransactionRepository transactionRepository,
+                                        TransactionMapper transactionMapper,
+                                        EntityManager entityManager,
+                                        ObjectMapper objectMapper,
+                                        MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.entityManager = entityManager;
+        this.rowWriter = objectMapper.writerFor(TransactionResponse.class);
+
+        for (ExportFormat format : ExportFormat.values()) {
+            exportedCounters.put(format, Counter.builder("wallet.transactions.exported")
+                    .description("Total number of transactions written by history exports")
+                    .tag("format", format.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportTransactions(Long walletId, ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting transactions of wallet {} as {}", walletId, format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        try (Stream<Transaction> transactions = transactionRepository.streamByWalletId(walletId)) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                TransactionResponse row = transactionMapper.toResponse(transaction);
+                entityManager.detach(transaction);
+
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(rowWriter.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++rows % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+
+        exportedCounters.get(format).increment(rows);
+        log.info("Exported {} transactions of wallet {}", rows, walletId);
+        return rows;
+    }
+
+    private void writeCsv(Writer writer, TransactionResponse row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getWalletId()));
+        writer.write(',');
+        writer.write(row.getType().name());
+        writer.write(',');
+        writer.write(row.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(row.getOppositePartyType().name());
+        writer.write(',');
+        writer.write(csvField(row.getOppositeParty()));
+        writer.write(',');
+        writer.write(row.getStatus().name());
+        writer.write(',');
+        writer.write(csvField(row.getTransferId()));
+        writer.write(',');
+        writer.write(csvField(row.getCreatedAt()));
+        writer.write(',');
+        writer.write(csvField(row.getUpdatedAt()));
+        writer.write('\n');
+    }
+
+    /**
+     * Quote a free-text field when needed, and keep spreadsheets from reading it as a formula
+     */
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -1,19 +1,34 @@
 package com.digitalwallet.walletapi.service.impl;
 
+import com.digitalwallet.walletapi.cache.WalletCache;
 import com.digitalwallet.walletapi.dto.request.ApproveTransactionRequest;
+import com.digitalwallet.walletapi.engine.BalanceEngine;
 import com.digitalwallet.walletapi.entity.Transaction;
 import com.digitalwallet.walletapi.entity.Wallet;
 import com.digitalwallet.walletapi.enums.TransactionStatus;
 import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.exception.BusinessException;
 import com.digitalwallet.walletapi.exception.TransactionNotFoundException;
+import com.digitalwallet.walletapi.ledger.WalletLedger;
+import com.digitalwallet.walletapi.money.Money;
+import com.digitalwallet.walletapi.pagination.KeysetCursor;
+import com.digitalwallet.walletapi.pagination.KeysetPage;
 import com.digitalwallet.walletapi.repository.TransactionRepository;
 import com.digitalwallet.walletapi.repository.WalletRepository;
 import com.digitalwallet.walletapi.service.TransactionService;
+import com.digitalwallet.walletapi.stats.WalletStatistics;
+import com.digitalwallet.walletapi.write.WalletWriteExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,15 +38,47 @@ public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
+    private final WalletWriteExecutor writeExecutor;
+    private final BalanceEngine balanceEngine;
+    private final WalletLedger walletLedger;
+    private final WalletStatistics walletStatistics;
+    private final WalletCache walletCache;
+
+    @Value("${wallet.transaction.page.default-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${wallet.transaction.page.max-size:200}")
+    private int maxPageSize = 200;
 
     /**
-     * List all transactions for a wallet
+     * List a page of transactions for a wallet. One row more than the page size is
+     * read to find out whether another page follows.
      */
     @Override
     @Transactional(readOnly = true)
-    public List<Transaction> listTransactions(Long walletId) {
+    public KeysetPage<Transaction> listTransactions(Long walletId, String cursor, Integer limit) {
         log.info("Listing transactions for wallet: {}", walletId);
-        return transactionRepository.findByWalletIdOrderByCreatedAtDesc(walletId);
+
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BusinessException("Page size must be between 1 and " + maxPageSize, "INVALID_PAGE_SIZE");
+        }
+
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<Transaction> transactions;
+        if (cursor == null) {
+            transactions = transactionRepository.findFirstPage(walletId, window);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            transactions = transactionRepository.findPageAfter(walletId, after.createdAt(), after.id(), window);
+        }
+
+        if (transactions.size() <= pageSize) {
+            return new KeysetPage<>(transactions, null);
+        }
+        List<Transaction> page = transactions.subList(0, pageSize);
+        Transaction last = page.get(pageSize - 1);
+        return new KeysetPage<>(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
     }
 
     /**
@@ -46,9 +93,11 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     /**
-     * Approve or deny a transaction
+     * Approve or deny a transaction. Runs through the write executor so that a
+     * version conflict on the wallet is retried in optimistic mode.
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void approveTransaction(ApproveTransactionRequest request) {
         log.info("Processing transaction approval: {} with status: {}", 
                 request.getTransactionId(), request.getStatus());
@@ -57,7 +106,69 @@ public class TransactionServiceImpl implements TransactionService {
         if (!request.isValidStatus()) {
             throw new IllegalArgumentException("Invalid status. Only APPROVED or DENIED allowed.");
         }
-        
+
+        if (balanceEngine.isEnabled()) {
+            settleInEngine(request);
+            log.info("Transaction {} processed successfully", request.getTransactionId());
+            return;
+        }
+
+        if (walletLedger.isEnabled()) {
+            writeExecutor.executeUnbatched(() -> settleInLedger(request));
+            log.info("Transaction {} processed successfully", request.getTransactionId());
+            return;
+        }
+
+        writeExecutor.executeUnbatched(() -> applyApproval(request));
+    }
+
+    /**
+     * Store the approval decision and append the compensating postings, for both
+     * legs of a transfer. No wallet is locked; the conditional update makes sure a
+     * transaction is only ever settled once.
+     */
+    private void settleInLedger(ApproveTransactionRequest request) {
+        Transaction transaction = transactionRepository.findById(request.getTransactionId())
+                .orElseThrow(() -> new TransactionNotFoundException(request.getTransactionId()));
+
+        List<Transaction> legs = transaction.getTransferId() != null
+                ? transactionRepository.findByTransferId(transaction.getTransferId())
+                : List.of(transaction);
+        for (Transaction leg : legs) {
+            if (transactionRepository.decidePending(leg.getId(), request.getStatus()) == 0) {
+                throw new IllegalStateException("Only pending transactions can be approved or denied");
+            }
+            walletLedger.settle(leg, request.getStatus());
+            walletStatistics.transactionDecided(request.getStatus());
+            walletCache.evictWallet(leg.getWallet().getId());
+        }
+    }
+
+    /**
+     * Hand the approval decision to the balance engine, which writes the status
+     * together with the balances it changes. The engine checks again that the
+     * transaction is still pending, so a transaction is only ever settled once.
+     */
+    private void settleInEngine(ApproveTransactionRequest request) {
+        Transaction transaction = transactionRepository.findById(request.getTransactionId())
+                .orElseThrow(() -> new TransactionNotFoundException(request.getTransactionId()));
+
+        if (transaction.getTransferId() != null) {
+            throw new BusinessException("Transfer approvals are not available while the balance engine is enabled",
+                    "TRANSFER_UNAVAILABLE");
+        }
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            throw new IllegalStateException("Only pending transactions can be approved or denied");
+        }
+        balanceEngine.settle(transaction.getWallet().getId(), transaction.getId(), transaction.getType(),
+                transaction.getAmount(), request.getStatus());
+        walletStatistics.transactionDecided(request.getStatus());
+    }
+
+    /**
+     * Apply an approval decision inside the current transaction
+     */
+    private void applyApproval(ApproveTransactionRequest request) {
         Transaction transaction = transactionRepository.findById(request.getTransactionId())
                 .orElseThrow(() -> new TransactionNotFoundException(request.getTransactionId()));
         
@@ -66,11 +177,18 @@ public class TransactionServiceImpl implements TransactionService {
             throw new IllegalStateException("Only pending transactions can be approved or denied");
         }
         
+        if (transaction.getTransferId() != null) {
+            applyTransferApproval(transaction.getTransferId(), request.getStatus());
+            log.info("Transaction {} processed successfully", request.getTransactionId());
+            return;
+        }
+
         Wallet wallet = transaction.getWallet();
         
         // Update transaction status
         transaction.setStatus(request.getStatus());
         transactionRepository.save(transaction);
+        walletStatistics.transactionDecided(request.getStatus());
         
         // Update wallet balances based on approval decision
         if (request.getStatus() == TransactionStatus.APPROVED) {
@@ -80,19 +198,50 @@ public class TransactionServiceImpl implements TransactionService {
         }
         
         walletRepository.save(wallet);
+        walletCache.evictWallet(wallet.getId());
         log.info("Transaction {} processed successfully", request.getTransactionId());
     }
 
+    /**
+     * Approve or deny both legs of a transfer together, locking the two wallets in
+     * ascending ID order like the transfer itself
+     */
+    private void applyTransferApproval(String transferId, TransactionStatus decision) {
+        List<Transaction> legs = transactionRepository.findByTransferId(transferId);
+        Map<Long, Wallet> wallets = walletRepository.findAllByIdForUpdate(
+                        legs.stream().map(leg -> leg.getWallet().getId()).toList())
+                .stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+
+        for (Transaction leg : legs) {
+            if (leg.getStatus() != TransactionStatus.PENDING) {
+                throw new IllegalStateException("Only pending transactions can be approved or denied");
+            }
+            Wallet wallet = wallets.get(leg.getWallet().getId());
+            leg.setStatus(decision);
+            walletStatistics.transactionDecided(decision);
+            if (decision == TransactionStatus.APPROVED) {
+                handleTransactionApproval(leg, wallet);
+            } else {
+                handleTransactionDenial(leg, wallet);
+            }
+        }
+
+        transactionRepository.saveAll(legs);
+        walletRepository.saveAll(wallets.values());
+        walletCache.evictWallets(wallets.keySet());
+    }
+
     /**
      * Handle transaction approval - update wallet balances
      */
     private void handleTransactionApproval(Transaction transaction, Wallet wallet) {
         if (transaction.getType() == TransactionType.DEPOSIT) {
             // For deposit approval: amount was already added to balance, now add to usable balance
-            wallet.setUsableBalance(wallet.getUsableBalance().add(transaction.getAmount()));
+            wallet.setUsableBalance(Money.add(wallet.getUsableBalance(), transaction.getAmount()));
         } else if (transaction.getType() == TransactionType.WITHDRAW) {
             // For withdraw approval: amount was already deducted from usable balance, now deduct from balance
-            wallet.setBalance(wallet.getBalance().subtract(transaction.getAmount()));
+            wallet.setBalance(Money.subtract(wallet.getBalance(), transaction.getAmount()));
         }
     }
 
@@ -102,10 +251,10 @@ public class TransactionServiceImpl implements TransactionService {
     private void handleTransactionDenial(Transaction transaction, Wallet wallet) {
         if (transaction.getType() == TransactionType.DEPOSIT) {
             // For deposit denial: revert the balance addition
-            wallet.setBalance(wallet.getBalance().subtract(transaction.getAmount()));
+            wallet.setBalance(Money.subtract(wallet.getBalance(), transaction.getAmount()));
         } else if (transaction.getType() == TransactionType.WITHDRAW) {
             // For withdraw denial: revert the usable balance deduction
-            wallet.setUsableBalance(wallet.getUsableBalance().add(transaction.getAmount()));
+            wallet.setUsableBalance(Money.add(wallet.getUsableBalance(), transaction.getAmount()));
         }
     }
 }
\ No newline at end of file
@@ -1,30 +1,58 @@
 package com.digitalwallet.walletapi.service.impl;
 
+import com.digitalwallet.walletapi.cache.WalletCache;
+import com.digitalwallet.walletapi.dto.request.BatchOperationRequest;
 import com.digitalwallet.walletapi.dto.request.CreateWalletRequest;
 import com.digitalwallet.walletapi.dto.request.DepositRequest;
+import com.digitalwallet.walletapi.dto.request.TransferRequest;
 import com.digitalwallet.walletapi.dto.request.WithdrawRequest;
+import com.digitalwallet.walletapi.dto.response.BatchItemResult;
+import com.digitalwallet.walletapi.dto.response.BatchOperationResponse;
+import com.digitalwallet.walletapi.engine.BalanceEngine;
 import com.digitalwallet.walletapi.entity.Customer;
 import com.digitalwallet.walletapi.entity.Transaction;
 import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.BatchMode;
 import com.digitalwallet.walletapi.enums.Currency;
 import com.digitalwallet.walletapi.enums.OppositePartyType;
 import com.digitalwallet.walletapi.enums.TransactionStatus;
 import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.enums.WalletConcurrencyMode;
+import com.digitalwallet.walletapi.exception.BusinessException;
 import com.digitalwallet.walletapi.exception.InsufficientBalanceException;
 import com.digitalwallet.walletapi.exception.WalletNotActiveException;
 import com.digitalwallet.walletapi.exception.WalletNotFoundException;
+import com.digitalwallet.walletapi.ledger.WalletLedger;
+import com.digitalwallet.walletapi.money.Money;
+import com.digitalwallet.walletapi.ownership.WalletOwnershipIndex;
 import com.digitalwallet.walletapi.repository.CustomerRepository;
 import com.digitalwallet.walletapi.repository.TransactionRepository;
 import com.digitalwallet.walletapi.repository.WalletRepository;
 import com.digitalwallet.walletapi.service.WalletService;
+import com.digitalwallet.walletapi.stats.WalletStatistics;
+import com.digitalwallet.walletapi.write.WalletStripes;
+import com.digitalwallet.walletapi.write.WalletWriteExecutor;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
@@ -34,22 +62,58 @@ public class WalletServiceImpl implements WalletService {
     private final WalletRepository walletRepository;
     private final CustomerRepository customerRepository;
     private final TransactionRepository transactionRepository;
+    private final WalletWriteExecutor writeExecutor;
+    private final BalanceEngine balanceEngine;
+    private final WalletStripes walletStripes;
+    private final WalletLedger walletLedger;
+    private final WalletStatistics walletStatistics;
+    private final WalletOwnershipIndex walletOwnershipIndex;
+    private final WalletCache walletCache;
+    private final TransactionTemplate snapshotReads;
 
-    @Value("${wallet.transaction.pending-threshold}")
-    private BigDecimal pendingThreshold;
+    /**
+     * Amounts above this (in minor units) need approval
+     */
+    private long pendingThreshold;
+
+    @Value("${wallet.batch.max-items:10000}")
+    private int maxBatchItems = 10000;
 
     private final Counter depositCounter;
     private final Counter withdrawCounter;
     private final Counter approvedTransactionCounter;
     private final Counter pendingTransactionCounter;
+    private final Timer completedTransferTimer;
+    private final Timer rejectedTransferTimer;
 
     public WalletServiceImpl(WalletRepository walletRepository,
                              CustomerRepository customerRepository,
                              TransactionRepository transactionRepository,
-                             MeterRegistry meterRegistry) {
+                             MeterRegistry meterRegistry,
+                             WalletWriteExecutor writeExecutor,
+                             BalanceEngine balanceEngine,
+                             WalletStripes walletStripes,
+                             WalletLedger walletLedger,
+                             WalletStatistics walletStatistics,
+                             WalletOwnershipIndex walletOwnershipIndex,
+                             WalletCache walletCache,
+                             PlatformTransactionManager transactionManager) {
         this.walletRepository = walletRepository;
         this.customerRepository = customerRepository;
         this.transactionRepository = transactionRepository;
+        this.writeExecutor = writeExecutor;
+        this.balanceEngine = balanceEngine;
+        this.walletStripes = walletStripes;
+        this.walletLedger = walletLedger;
+        this.walletStatistics = walletStatistics;
+        this.walletOwnershipIndex = walletOwnershipIndex;
+        this.walletCache = walletCache;
+
+        // The wallet row and its outstanding postings and stripes are read from one snapshot,
+        // so a posting folded into the row in between is neither counted twice nor missed
+        this.snapshotReads = new TransactionTemplate(transactionManager);
+        this.snapshotReads.setReadOnly(true);
+        this.snapshotReads.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
 
         this.depositCounter = Counter.builder("wallet.transactions.deposits")
                 .description("Total number of deposit transactions")
@@ -66,6 +130,21 @@ public class WalletServiceImpl implements WalletService {
         this.pendingTransactionCounter = Counter.builder("wallet.transactions.pending")
                 .description("Total number of pending transactions")
                 .register(meterRegistry);
+
+        this.completedTransferTimer = Timer.builder("wallet.transfers")
+                .description("Time taken by wallet-to-wallet transfers")
+                .tag("outcome", "completed")
+                .register(meterRegistry);
+
+        this.rejectedTransferTimer = Timer.builder("wallet.transfers")
+                .description("Time taken by wallet-to-wallet transfers")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    @Value("${wallet.transaction.pending-threshold}")
+    void setPendingThreshold(BigDecimal pendingThreshold) {
+        this.pendingThreshold = Money.toMinorUnits(pendingThreshold);
     }
 
     /**
@@ -84,68 +163,180 @@ public class WalletServiceImpl implements WalletService {
                 .currency(request.getCurrency())
                 .activeForShopping(request.getActiveForShopping())
                 .activeForWithdraw(request.getActiveForWithdraw())
-                .balance(BigDecimal.ZERO)
-                .usableBalance(BigDecimal.ZERO)
                 .build();
 
-        return walletRepository.save(wallet);
+        Wallet saved = walletRepository.save(wallet);
+        walletStatistics.walletCreated();
+        walletOwnershipIndex.walletCreated(saved.getId(), customerId);
+        walletCache.evictCustomer(customerId);
+        return saved;
     }
 
     /**
-     * List all wallets for a customer
+     * List all wallets for a customer. Served from the wallet cache, so a hit takes
+     * no connection.
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Wallet> listWallets(Long customerId) {
         log.info("Listing wallets for customer: {}", customerId);
-        return walletRepository.findByCustomerId(customerId);
+        List<Long> walletIds = walletCache.getWalletIds(customerId, walletRepository::findIdsByCustomerId);
+        return walletCache.getWallets(walletIds, this::loadWallets);
     }
 
     /**
      * List wallets by customer ID and currency filter
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Wallet> listWallets(Long customerId, Currency currency) {
         log.info("Listing wallets for customer: {} with currency: {}", customerId, currency);
-        return walletRepository.findByCustomerIdAndCurrency(customerId, currency);
+        return listWallets(customerId).stream()
+                .filter(wallet -> wallet.getCurrency() == currency)
+                .toList();
     }
 
     /**
      * Get wallet by ID and customer ID (for security)
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Wallet getWallet(Long walletId, Long customerId) {
         log.info("Getting wallet: {} for customer: {}", walletId, customerId);
-        return walletRepository.findByIdAndCustomerId(walletId, customerId)
+        return walletCache.getWallet(walletId, id -> snapshotReads.execute(status ->
+                        walletRepository.findById(id).map(wallet -> {
+                            applyOutstanding(List.of(wallet));
+                            return wallet;
+                        })))
+                .filter(wallet -> wallet.getCustomer().getId().equals(customerId))
                 .orElseThrow(() -> new WalletNotFoundException(walletId));
     }
 
     /**
-     * Make deposit to wallet
+     * Revisions of a customer's wallets, read from the database on every call. Cached
+     * snapshots that differ from them are evicted, so a following listWallets is at
+     * least as new as the revisions.
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Wallet> listWalletRevisions(Long customerId, Currency currency) {
+        List<Wallet> revisions = readRevisions(() -> walletRepository.findRevisionsByCustomerId(customerId));
+        walletCache.evictStaleIds(customerId, revisions.stream().map(Wallet::getId).toList());
+        walletCache.evictStale(revisions);
+        return revisions.stream()
+                .filter(wallet -> currency == null || wallet.getCurrency() == currency)
+                .toList();
+    }
+
+    /**
+     * Revision of a wallet, read from the database on every call. A cached snapshot that
+     * differs from it is evicted, so a following getWallet is at least as new as the revision.
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Wallet getWalletRevision(Long walletId, Long customerId) {
+        List<Wallet> revisions = readRevisions(() -> walletRepository.findRevisionById(walletId).stream().toList());
+        walletCache.evictStale(revisions);
+        return revisions.stream()
+                .filter(wallet -> wallet.getCustomer().getId().equals(customerId))
+                .findFirst()
+                .orElseThrow(() -> new WalletNotFoundException(walletId));
+    }
+
+    /**
+     * Wallets reduced to their ID, owner, currency and version, with the outstanding
+     * amounts read in the same snapshot as the rows
+     */
+    private List<Wallet> readRevisions(Supplier<List<WalletRepository.WalletRevision>> query) {
+        return snapshotReads.execute(status -> {
+            List<Wallet> revisions = query.get().stream()
+                    .map(revision -> Wallet.builder()
+                            .id(revision.getId())
+                            .customer(Customer.builder().id(revision.getCustomerId()).build())
+                            .currency(revision.getCurrency())
+                            .stripeCount(revision.getStripeCount())
+                            .version(revision.getVersion())
+                            .build())
+                    .toList();
+            applyOutstanding(revisions);
+            return revisions;
+        });
+    }
+
+    /**
+     * Load wallets missing from the cache, with their outstanding balances
+     */
+    private List<Wallet> loadWallets(Collection<Long> walletIds) {
+        return snapshotReads.execute(status -> {
+            List<Wallet> wallets = walletRepository.findAllById(walletIds);
+            applyOutstanding(wallets);
+            return wallets;
+        });
+    }
+
+    /**
+     * Split a wallet's balance over the given number of stripes, or turn striping off with 0
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Wallet configureStripes(Long walletId, int stripeCount) {
+        log.info("Configuring {} balance stripes for wallet: {}", stripeCount, walletId);
+
+        Wallet wallet = writeExecutor.executeUnbatched(() -> {
+            Wallet locked = walletRepository.findByIdForUpdate(walletId)
+                    .orElseThrow(() -> new WalletNotFoundException(walletId));
+            walletStripes.configure(locked, stripeCount);
+            walletCache.evictWallet(walletId);
+            return walletRepository.save(locked);
+        });
+        applyOutstanding(List.of(wallet));
+        return wallet;
+    }
+
+    /**
+     * Make deposit to wallet. The transaction is owned by the write executor so that
+     * the request thread holds no connection while a group commit is pending.
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deposit(DepositRequest request) {
         log.info("Processing deposit: {} to wallet: {}", request.getAmount(), request.getWalletId());
 
         depositCounter.increment();
 
-        Wallet wallet = walletRepository.findByIdForUpdate(request.getWalletId())
-                .orElseThrow(() -> new WalletNotFoundException(request.getWalletId()));
-
-        TransactionStatus status = request.getAmount().compareTo(pendingThreshold) > 0
-                ? TransactionStatus.PENDING : TransactionStatus.APPROVED;
+        if (balanceEngine.isEnabled()) {
+            long amount = Money.toMinorUnits(request.getAmount());
+            TransactionStatus status = determineStatus(amount);
+            balanceEngine.record(request.getWalletId(), TransactionType.DEPOSIT, amount, status,
+                    determineOppositePartyType(request.getSource()), request.getSource());
+            countStatus(status);
+            return;
+        }
 
-        if (status == TransactionStatus.APPROVED) {
-            approvedTransactionCounter.increment();
+        if (walletLedger.isEnabled()) {
+            writeExecutor.execute(request.getWalletId(), () -> applyLedgerDeposit(request));
+        } else if (walletStripes.isStriped(request.getWalletId())) {
+            writeExecutor.execute(request.getWalletId(), () -> applyStripedDeposit(request));
+        } else if (writeExecutor.getConcurrencyMode() == WalletConcurrencyMode.ATOMIC) {
+            writeExecutor.execute(request.getWalletId(), () -> applyDepositAtomically(request));
         } else {
-            pendingTransactionCounter.increment();
+            writeExecutor.execute(request.getWalletId(), () -> applyDeposit(request));
         }
+    }
+
+    /**
+     * Apply a deposit inside the current transaction
+     */
+    private void applyDeposit(DepositRequest request) {
+        long amount = Money.toMinorUnits(request.getAmount());
+        Wallet wallet = loadWalletForWrite(request.getWalletId());
+
+        TransactionStatus status = determineStatus(amount);
+        countStatus(status);
 
         Transaction transaction = Transaction.builder()
                 .wallet(wallet)
-                .amount(request.getAmount())
+                .amount(amount)
                 .type(TransactionType.DEPOSIT)
                 .oppositePartyType(determineOppositePartyType(request.getSource()))
                 .oppositeParty(request.getSource())
@@ -153,15 +344,10 @@ public class WalletServiceImpl implements WalletService {
                 .build();
 
         transactionRepository.save(transaction);
-
-        if (status == TransactionStatus.APPROVED) {
-            wallet.setBalance(wallet.getBalance().add(request.getAmount()));
-            wallet.setUsableBalance(wallet.getUsableBalance().add(request.getAmount()));
-        } else {
-            wallet.setBalance(wallet.getBalance().add(request.getAmount()));
-        }
+        creditWallet(wallet, amount, status);
 
         walletRepository.save(wallet);
+        walletCache.evictWallet(wallet.getId());
         log.info("Deposit processed successfully with status: {}", status);
     }
 
@@ -169,16 +355,481 @@ public class WalletServiceImpl implements WalletService {
      * Make withdraw from wallet
      */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void withdraw(WithdrawRequest request) {
         log.info("Processing withdraw: {} from wallet: {}", request.getAmount(), request.getWalletId());
 
         withdrawCounter.increment();
 
-        Wallet wallet = walletRepository.findByIdForUpdate(request.getWalletId())
-                .orElseThrow(() -> new WalletNotFoundException(request.getWalletId()));
+        if (balanceEngine.isEnabled()) {
+            long amount = Money.toMinorUnits(request.getAmount());
+            TransactionStatus status = determineStatus(amount);
+            balanceEngine.record(request.getWalletId(), TransactionType.WITHDRAW, amount, status,
+                    determineOppositePartyType(request.getDestination()), request.getDestination());
+            countStatus(status);
+            return;
+        }
+
+        if (walletLedger.isEnabled()) {
+            writeExecutor.execute(request.getWalletId(), () -> applyLedgerWithdraw(request));
+        } else if (writeExecutor.getConcurrencyMode() == WalletConcurrencyMode.ATOMIC
+                && !walletStripes.isStriped(request.getWalletId())) {
+            writeExecutor.execute(request.getWalletId(), () -> applyWithdrawAtomically(request));
+        } else {
+            writeExecutor.execute(request.getWalletId(), () -> applyWithdraw(request));
+        }
+    }
+
+    /**
+     * Apply a withdraw inside the current transaction
+     */
+    private void applyWithdraw(WithdrawRequest request) {
+        long amount = Money.toMinorUnits(request.getAmount());
+        Wallet wallet = loadWalletForWrite(request.getWalletId());
+        if (wallet.getStripeCount() > 0) {
+            walletStripes.consolidate(wallet);
+        }
+
+        OppositePartyType oppositePartyType = determineOppositePartyType(request.getDestination());
+        checkWithdrawAllowed(wallet, amount, oppositePartyType);
+
+        TransactionStatus status = determineStatus(amount);
+        countStatus(status);
+
+        Transaction transaction = Transaction.builder()
+                .wallet(wallet)
+                .amount(amount)
+                .type(TransactionType.WITHDRAW)
+                .oppositePartyType(oppositePartyType)
+                .oppositeParty(request.getDestination())
+                .status(status)
+                .build();
+
+        transactionRepository.save(transaction);
+        debitWallet(wallet, amount, status);
+
+        walletRepository.save(wallet);
+        walletCache.evictWallet(wallet.getId());
+        log.info("Withdraw processed successfully with status: {}", status);
+    }
+
+    /**
+     * Record a deposit as ledger postings. Only rows are inserted, so the wallet
+     * is not locked.
+     */
+    private void applyLedgerDeposit(DepositRequest request) {
+        long amount = Money.toMinorUnits(request.getAmount());
+        if (!walletRepository.existsById(request.getWalletId())) {
+            throw new WalletNotFoundException(request.getWalletId());
+        }
+        TransactionStatus status = determineStatus(amount);
+
+        Transaction transaction = Transaction.builder()
+                .wallet(walletRepository.getReferenceById(request.getWalletId()))
+                .amount(amount)
+                .type(TransactionType.DEPOSIT)
+                .oppositePartyType(determineOppositePartyType(request.getSource()))
+                .oppositeParty(request.getSource())
+                .status(status)
+                .build();
+        transactionRepository.save(transaction);
+        walletLedger.record(transaction);
+        walletCache.evictWallet(request.getWalletId());
+
+        countStatus(status);
+        log.info("Deposit processed successfully with status: {}", status);
+    }
+
+    /**
+     * Record a withdraw as ledger postings. The wallet is row-locked in every
+     * concurrency mode because the check reads the row and the unmaterialized
+     * postings together, and neither is changed by the withdraw itself.
+     */
+    private void applyLedgerWithdraw(WithdrawRequest request) {
+        long amount = Money.toMinorUnits(request.getAmount());
+        Wallet wallet = lockWallets(List.of(request.getWalletId())).get(request.getWalletId());
+        if (wallet == null) {
+            throw new WalletNotFoundException(request.getWalletId());
+        }
+
+        OppositePartyType oppositePartyType = determineOppositePartyType(request.getDestination());
+        checkWithdrawAllowed(wallet, amount, oppositePartyType);
+
+        TransactionStatus status = determineStatus(amount);
+        Transaction transaction = Transaction.builder()
+                .wallet(wallet)
+                .amount(amount)
+                .type(TransactionType.WITHDRAW)
+                .oppositePartyType(oppositePartyType)
+                .oppositeParty(request.getDestination())
+                .status(status)
+                .build();
+        transactionRepository.save(transaction);
+        walletLedger.record(transaction);
+        walletCache.evictWallet(request.getWalletId());
+
+        countStatus(status);
+        log.info("Withdraw processed successfully with status: {}", status);
+    }
+
+    /**
+     * Apply a deposit to a random stripe of a striped wallet. The transaction row is
+     * flushed before the stripe is updated so that, like withdrawals, the wallet row
+     * is always reached before a stripe row.
+     */
+    private void applyStripedDeposit(DepositRequest request) {
+        long amount = Money.toMinorUnits(request.getAmount());
+        TransactionStatus status = determineStatus(amount);
+        long usableDelta = status == TransactionStatus.APPROVED ? amount : 0L;
+
+        Transaction transaction = Transaction.builder()
+                .wallet(walletRepository.getReferenceById(request.getWalletId()))
+                .amount(amount)
+                .type(TransactionType.DEPOSIT)
+                .oppositePartyType(determineOppositePartyType(request.getSource()))
+                .oppositeParty(request.getSource())
+                .status(status)
+                .build();
+        transactionRepository.saveAndFlush(transaction);
 
+        // Striping was turned off concurrently: fall back to the wallet row
+        if (!walletStripes.credit(request.getWalletId(), amount, usableDelta)) {
+            walletRepository.credit(request.getWalletId(), amount, usableDelta);
+        }
+        walletCache.evictWallet(request.getWalletId());
+        countStatus(status);
+        log.info("Deposit processed successfully with status: {}", status);
+    }
+
+    /**
+     * Apply a deposit with a single UPDATE, without reading the wallet first
+     */
+    private void applyDepositAtomically(DepositRequest request) {
+        long amount = Money.toMinorUnits(request.getAmount());
+        TransactionStatus status = determineStatus(amount);
+        long usableDelta = status == TransactionStatus.APPROVED ? amount : 0L;
+
+        if (walletRepository.credit(request.getWalletId(), amount, usableDelta) == 0) {
+            throw new WalletNotFoundException(request.getWalletId());
+        }
+        walletCache.evictWallet(request.getWalletId());
+        countStatus(status);
+
+        Transaction transaction = Transaction.builder()
+                .wallet(walletRepository.getReferenceById(request.getWalletId()))
+                .amount(amount)
+                .type(TransactionType.DEPOSIT)
+                .oppositePartyType(determineOppositePartyType(request.getSource()))
+                .oppositeParty(request.getSource())
+                .status(status)
+                .build();
+
+        transactionRepository.save(transaction);
+        log.info("Deposit processed successfully with status: {}", status);
+    }
+
+    /**
+     * Apply a withdraw with a single conditional UPDATE. The active flag and the
+     * usable balance are checked by the WHERE clause; the wallet is only read when
+     * the update is rejected, to raise the same exception the entity path would.
+     */
+    private void applyWithdrawAtomically(WithdrawRequest request) {
         OppositePartyType oppositePartyType = determineOppositePartyType(request.getDestination());
+        long amount = Money.toMinorUnits(request.getAmount());
+        TransactionStatus status = determineStatus(amount);
+        long balanceDelta = status == TransactionStatus.APPROVED ? amount : 0L;
+
+        int updated = oppositePartyType == OppositePartyType.PAYMENT
+                ? walletRepository.debitForShopping(request.getWalletId(), amount, balanceDelta)
+                : walletRepository.debitForWithdraw(request.getWalletId(), amount, balanceDelta);
 
+        if (updated == 0) {
+            throw rejectedWithdraw(request.getWalletId(), amount, oppositePartyType);
+        }
+        walletCache.evictWallet(request.getWalletId());
+        countStatus(status);
+
+        Transaction transaction = Transaction.builder()
+                .wallet(walletRepository.getReferenceById(request.getWalletId()))
+                .amount(amount)
+                .type(TransactionType.WITHDRAW)
+                .oppositePartyType(oppositePartyType)
+                .oppositeParty(request.getDestination())
+                .status(status)
+                .build();
+
+        transactionRepository.save(transaction);
+        log.info("Withdraw processed successfully with status: {}", status);
+    }
+
+    /**
+     * Work out why a conditional withdraw matched no row
+     */
+    private RuntimeException rejectedWithdraw(Long walletId, long amount, OppositePartyType oppositePartyType) {
+        Wallet wallet = walletRepository.findById(walletId).orElse(null);
+        if (wallet == null) {
+            return new WalletNotFoundException(walletId);
+        }
+        if (oppositePartyType == OppositePartyType.PAYMENT && !wallet.getActiveForShopping()) {
+            return new WalletNotActiveException("shopping");
+        }
+        if (oppositePartyType != OppositePartyType.PAYMENT && !wallet.getActiveForWithdraw()) {
+            return new WalletNotActiveException("withdraw");
+        }
+        return new InsufficientBalanceException(amount, wallet.getUsableBalance());
+    }
+
+    /**
+     * Apply a batch of deposits and withdrawals in one transaction. All affected
+     * wallets are locked up front in ascending ID order and the transaction rows
+     * are written as JDBC batches.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchOperationResponse processBatch(BatchOperationRequest request) {
+        int itemCount = request.getDeposits().size() + request.getWithdrawals().size();
+        log.info("Processing {} batch of {} items", request.getMode(), itemCount);
+
+        if (itemCount == 0 || itemCount > maxBatchItems) {
+            throw new BusinessException("Batch must contain between 1 and " + maxBatchItems + " items",
+                    "INVALID_BATCH_SIZE");
+        }
+        if (balanceEngine.isEnabled()) {
+            throw new BusinessException("Batch operations are not available while the balance engine is enabled",
+                    "BATCH_UNAVAILABLE");
+        }
+        if (walletLedger.isEnabled()) {
+            throw new BusinessException("Batch operations are not available while the wallet ledger is enabled",
+                    "BATCH_UNAVAILABLE");
+        }
+
+        depositCounter.increment(request.getDeposits().size());
+        withdrawCounter.increment(request.getWithdrawals().size());
+
+        List<BatchItemResult> results;
+        try {
+            results = writeExecutor.executeUnbatched(() -> applyBatch(request));
+        } catch (BatchAbortedException e) {
+            results = e.results;
+        }
+
+        int applied = 0;
+        for (BatchItemResult result : results) {
+            if (result.isApplied()) {
+                countStatus(result.getStatus());
+                applied++;
+            }
+        }
+        log.info("Batch processed: {} applied, {} failed", applied, results.size() - applied);
+
+        return BatchOperationResponse.builder()
+                .mode(request.getMode())
+                .applied(applied)
+                .failed(results.size() - applied)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Apply a batch inside the current transaction. In all-or-nothing mode the first
+     * failure rolls everything back by throwing {@link BatchAbortedException}.
+     */
+    private List<BatchItemResult> applyBatch(BatchOperationRequest request) {
+        Map<Long, Wallet> wallets = lockWallets(request.walletIds());
+
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+
+        List<DepositRequest> deposits = request.getDeposits();
+        for (int i = 0; i < deposits.size(); i++) {
+            DepositRequest deposit = deposits.get(i);
+            results.add(applyBatchItem(TransactionType.DEPOSIT, i, deposit.getWalletId(), deposit.getAmount(),
+                    deposit.getSource(), wallets, transactions));
+        }
+        List<WithdrawRequest> withdrawals = request.getWithdrawals();
+        for (int i = 0; i < withdrawals.size(); i++) {
+            WithdrawRequest withdraw = withdrawals.get(i);
+            results.add(applyBatchItem(TransactionType.WITHDRAW, i, withdraw.getWalletId(), withdraw.getAmount(),
+                    withdraw.getDestination(), wallets, transactions));
+        }
+
+        if (request.getMode() == BatchMode.ALL_OR_NOTHING && transactions.size() < results.size()) {
+            for (BatchItemResult result : results) {
+                if (result.isApplied()) {
+                    result.setApplied(false);
+                    result.setStatus(null);
+                    result.setError("BATCH_ABORTED");
+                    result.setMessage("Not applied because another item in the batch failed");
+                }
+            }
+            throw new BatchAbortedException(results);
+        }
+
+        transactionRepository.saveAll(transactions);
+        walletRepository.saveAll(wallets.values());
+        walletCache.evictWallets(wallets.keySet());
+        return results;
+    }
+
+    /**
+     * Lock several wallets in ascending ID order, consolidating any striped ones and
+     * adding any unmaterialized ledger postings to their outstanding balances
+     */
+    private Map<Long, Wallet> lockWallets(Collection<Long> walletIds) {
+        Map<Long, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findAllByIdForUpdate(walletIds)) {
+            if (wallet.getStripeCount() > 0) {
+                walletStripes.consolidate(wallet);
+            }
+            wallets.put(wallet.getId(), wallet);
+        }
+        walletLedger.applyOutstanding(List.copyOf(wallets.values()));
+        return wallets;
+    }
+
+    /**
+     * Apply one batch item to its locked wallet, turning rule violations into a failed result
+     */
+    private BatchItemResult applyBatchItem(TransactionType type, int index, Long walletId, BigDecimal requestedAmount,
+                                           String party, Map<Long, Wallet> wallets, List<Transaction> transactions) {
+        BatchItemResult.BatchItemResultBuilder result = BatchItemResult.builder()
+                .type(type)
+                .index(index)
+                .walletId(walletId);
+        try {
+            Wallet wallet = wallets.get(walletId);
+            if (wallet == null) {
+                throw new WalletNotFoundException(walletId);
+            }
+
+            long amount = Money.toMinorUnits(requestedAmount);
+            OppositePartyType oppositePartyType = determineOppositePartyType(party);
+            TransactionStatus status = determineStatus(amount);
+            if (type == TransactionType.DEPOSIT) {
+                creditWallet(wallet, amount, status);
+            } else {
+                checkWithdrawAllowed(wallet, amount, oppositePartyType);
+                debitWallet(wallet, amount, status);
+            }
+
+            transactions.add(Transaction.builder()
+                    .wallet(wallet)
+                    .amount(amount)
+                    .type(type)
+                    .oppositePartyType(oppositePartyType)
+                    .oppositeParty(party)
+                    .status(status)
+                    .build());
+            return result.applied(true).status(status).build();
+        } catch (BusinessException e) {
+            return result.applied(false).error(e.getErrorCode()).message(e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Rolls back an all-or-nothing batch while carrying its per-item results out of the transaction
+     */
+    private static class BatchAbortedException extends RuntimeException {
+        private final List<BatchItemResult> results;
+
+        BatchAbortedException(List<BatchItemResult> results) {
+            super("Batch aborted", null, false, false);
+            this.results = results;
+        }
+    }
+
+    /**
+     * Move money between two wallets, recording a withdraw leg on the source and a
+     * deposit leg on the destination in the same transaction
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void transfer(TransferRequest request) {
+        log.info("Processing transfer: {} from wallet: {} to wallet: {}",
+                request.getAmount(), request.getFromWalletId(), request.getToWalletId());
+
+        if (request.getFromWalletId().equals(request.getToWalletId())) {
+            throw new BusinessException("Cannot transfer to the same wallet", "SAME_WALLET");
+        }
+        if (balanceEngine.isEnabled()) {
+            throw new BusinessException("Transfers are not available while the balance engine is enabled",
+                    "TRANSFER_UNAVAILABLE");
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            writeExecutor.executeUnbatched(() -> applyTransfer(request));
+            sample.stop(completedTransferTimer);
+        } catch (RuntimeException e) {
+            sample.stop(rejectedTransferTimer);
+            throw e;
+        }
+    }
+
+    /**
+     * Apply a transfer inside the current transaction. Both wallets are locked in
+     * ascending ID order, so opposite transfers between the same wallets cannot deadlock.
+     */
+    private void applyTransfer(TransferRequest request) {
+        Map<Long, Wallet> wallets = lockWallets(List.of(request.getFromWalletId(), request.getToWalletId()));
+
+        Wallet source = wallets.get(request.getFromWalletId());
+        if (source == null) {
+            throw new WalletNotFoundException(request.getFromWalletId());
+        }
+        Wallet destination = wallets.get(request.getToWalletId());
+        if (destination == null) {
+            throw new WalletNotFoundException(request.getToWalletId());
+        }
+        if (source.getCurrency() != destination.getCurrency()) {
+            throw new BusinessException("Cannot transfer between wallets with different currencies",
+                    "CURRENCY_MISMATCH");
+        }
+
+        long amount = Money.toMinorUnits(request.getAmount());
+        checkWithdrawAllowed(source, amount, OppositePartyType.WALLET);
+
+        TransactionStatus status = determineStatus(amount);
+        String transferId = UUID.randomUUID().toString();
+        List<Transaction> legs = List.of(
+                transferLeg(source, TransactionType.WITHDRAW, destination, amount, status, transferId),
+                transferLeg(destination, TransactionType.DEPOSIT, source, amount, status, transferId));
+
+        if (walletLedger.isEnabled()) {
+            transactionRepository.saveAll(legs);
+            legs.forEach(walletLedger::record);
+        } else {
+            debitWallet(source, amount, status);
+            creditWallet(destination, amount, status);
+            transactionRepository.saveAll(legs);
+            walletRepository.saveAll(List.of(source, destination));
+        }
+        walletCache.evictWallets(wallets.keySet());
+
+        // The statistics count rows, one per leg; the operation counters count the transfer once
+        legs.forEach(leg -> walletStatistics.transactionCreated(status));
+        countOperation(status);
+        log.info("Transfer {} processed successfully with status: {}", transferId, status);
+    }
+
+    private Transaction transferLeg(Wallet wallet, TransactionType type, Wallet counterparty, long amount,
+                                    TransactionStatus status, String transferId) {
+        return Transaction.builder()
+                .wallet(wallet)
+                .amount(amount)
+                .type(type)
+                .oppositePartyType(OppositePartyType.WALLET)
+                .oppositeParty(String.valueOf(counterparty.getId()))
+                .status(status)
+                .transferId(transferId)
+                .build();
+    }
+
+    /**
+     * Check that a withdraw of the given amount is allowed from a loaded wallet,
+     * counting any outstanding usable balance
+     */
+    private void checkWithdrawAllowed(Wallet wallet, long amount, OppositePartyType oppositePartyType) {
         if (oppositePartyType == OppositePartyType.PAYMENT) {
             if (!wallet.getActiveForShopping()) {
                 throw new WalletNotActiveException("shopping");
@@ -189,39 +840,83 @@ public class WalletServiceImpl implements WalletService {
             }
         }
 
-        if (wallet.getUsableBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientBalanceException(request.getAmount(), wallet.getUsableBalance());
+        long usableBalance = Money.add(wallet.getUsableBalance(), wallet.getOutstandingUsableBalance());
+        if (usableBalance < amount) {
+            throw new InsufficientBalanceException(amount, usableBalance);
         }
+    }
 
-        TransactionStatus status = request.getAmount().compareTo(pendingThreshold) > 0
-                ? TransactionStatus.PENDING : TransactionStatus.APPROVED;
+    /**
+     * Add a deposit to a loaded wallet; pending deposits are not usable yet
+     */
+    private void creditWallet(Wallet wallet, long amount, TransactionStatus status) {
+        wallet.setBalance(Money.add(wallet.getBalance(), amount));
+        if (status == TransactionStatus.APPROVED) {
+            wallet.setUsableBalance(Money.add(wallet.getUsableBalance(), amount));
+        }
+    }
 
+    /**
+     * Take a withdraw from a loaded wallet; pending withdraws only reserve the usable balance
+     */
+    private void debitWallet(Wallet wallet, long amount, TransactionStatus status) {
+        wallet.setUsableBalance(Money.subtract(wallet.getUsableBalance(), amount));
         if (status == TransactionStatus.APPROVED) {
-            approvedTransactionCounter.increment();
-        } else {
-            pendingTransactionCounter.increment();
+            wallet.setBalance(Money.subtract(wallet.getBalance(), amount));
         }
+    }
 
-        Transaction transaction = Transaction.builder()
-                .wallet(wallet)
-                .amount(request.getAmount())
-                .type(TransactionType.WITHDRAW)
-                .oppositePartyType(oppositePartyType)
-                .oppositeParty(request.getDestination())
-                .status(status)
-                .build();
+    /**
+     * Fill in the balance held in stripes and unmaterialized ledger postings for display
+     */
+    private void applyOutstanding(List<Wallet> wallets) {
+        walletStripes.applySummedView(wallets);
+        walletLedger.applyOutstanding(wallets);
+    }
 
-        transactionRepository.save(transaction);
+    /**
+     * Decide whether a transaction needs approval
+     */
+    private TransactionStatus determineStatus(long amount) {
+        return amount > pendingThreshold
+                ? TransactionStatus.PENDING : TransactionStatus.APPROVED;
+    }
 
-        if (status == TransactionStatus.APPROVED) {
-            wallet.setBalance(wallet.getBalance().subtract(request.getAmount()));
-            wallet.setUsableBalance(wallet.getUsableBalance().subtract(request.getAmount()));
+    /**
+     * Count an accepted transaction by its initial status
+     */
+    private void countStatus(TransactionStatus status) {
+        walletStatistics.transactionCreated(status);
+        countOperation(status);
+    }
+
+    /**
+     * Count an accepted operation by its initial status once its transaction commits,
+     * so that an attempt rolled back and retried is counted only once
+     */
+    private void countOperation(TransactionStatus status) {
+        Counter counter = status == TransactionStatus.APPROVED ? approvedTransactionCounter : pendingTransactionCounter;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter.increment();
+                }
+            });
         } else {
-            wallet.setUsableBalance(wallet.getUsableBalance().subtract(request.getAmount()));
+            counter.increment();
         }
+    }
 
-        walletRepository.save(wallet);
-        log.info("Withdraw processed successfully with status: {}", status);
+    /**
+     * Load a wallet for a balance change: row-locked in pessimistic mode,
+     * or a plain read checked by its version at commit in optimistic mode
+     */
+    private Wallet loadWalletForWrite(Long walletId) {
+        return (writeExecutor.getConcurrencyMode() == WalletConcurrencyMode.OPTIMISTIC
+                ? walletRepository.findById(walletId)
+                : walletRepository.findByIdForUpdate(walletId))
+                .orElseThrow(() -> new WalletNotFoundException(walletId));
     }
 
     /**
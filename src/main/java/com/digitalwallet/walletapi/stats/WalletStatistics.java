@@ -0,0 +1,138 @@
+package com.digitalwallet.walletapi.stats;
+
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.repository.CustomerRepository;
+import com.digitalwallet.walletapi.repository.TransactionRepository;
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Row counts kept in memory so that reading them costs nothing.
+ *
+ * The counts are seeded with aggregate queries once the application is ready and
+ * then moved by the write paths, each change applied only after its transaction
+ * commits. A write that commits while the counts are being reconciled can be
+ * counted twice or not at all, so they are periodically reconciled against the
+ * database again, which bounds any drift to one interval. A reconcile that fails
+ * keeps the previous counts; how long ago the last one succeeded is exposed as a
+ * gauge so that stale counts can be alerted on.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WalletStatistics {
+
+    private final CustomerRepository customerRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+
+    private final AtomicLong customers = new AtomicLong();
+    private final AtomicLong wallets = new AtomicLong();
+    private final Map<TransactionStatus, AtomicLong> transactionsByStatus = newStatusCounts();
+    private volatile Instant reconciledAt;
+
+    /**
+     * Replace the in-memory counts with the database's
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${wallet.stats.reconcile-interval-ms:300000}",
+               initialDelayString = "${wallet.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Map<TransactionStatus, Long> counted = new EnumMap<>(TransactionStatus.class);
+        long customerCount;
+        long walletCount;
+        try {
+            transactionRepository.countByStatus()
+                    .forEach(count -> counted.put(count.getStatus(), count.getCount()));
+            customerCount = customerRepository.count();
+            walletCount = walletRepository.count();
+        } catch (DataAccessException e) {
+            log.warn("Could not reconcile statistics, keeping the previous counts", e);
+            return;
+        }
+
+        customers.set(customerCount);
+        wallets.set(walletCount);
+        transactionsByStatus.forEach((status, count) -> count.set(counted.getOrDefault(status, 0L)));
+        reconciledAt = Instant.now();
+        log.debug("Reconciled statistics: {} customers, {} wallets, {} transactions",
+                customers.get(), wallets.get(), getTransactions());
+    }
+
+    public void walletCreated() {
+        afterCommit(wallets::incrementAndGet);
+    }
+
+    public void transactionCreated(TransactionStatus status) {
+        afterCommit(() -> transactionsByStatus.get(status).incrementAndGet());
+    }
+
+    /**
+     * Move a pending transaction to its decided status
+     */
+    public void transactionDecided(TransactionStatus decision) {
+        afterCommit(() -> {
+            transactionsByStatus.get(TransactionStatus.PENDING).decrementAndGet();
+            transactionsByStatus.get(decision).incrementAndGet();
+        });
+    }
+
+    public long getCustomers() {
+        return customers.get();
+    }
+
+    public long getWallets() {
+        return wallets.get();
+    }
+
+    public long getTransactions() {
+        return transactionsByStatus.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public long getTransactions(TransactionStatus status) {
+        return transactionsByStatus.get(status).get();
+    }
+
+    /**
+     * Seconds since the counts were last reconciled, or NaN before the first reconcile
+     */
+    public double getSecondsSinceReconcile() {
+        Instant at = reconciledAt;
+        return at == null ? Double.NaN : Duration.between(at, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static Map<TransactionStatus, AtomicLong> newStatusCounts() {
+        Map<TransactionStatus, AtomicLong> counts = new EnumMap<>(TransactionStatus.class);
+        for (TransactionStatus status : TransactionStatus.values()) {
+            counts.put(status, new AtomicLong());
+        }
+        return counts;
+    }
+}
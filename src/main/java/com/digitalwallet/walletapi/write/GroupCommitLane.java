@@ -0,0 +1,145 @@
+package com.digitalwallet.walletapi.write;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded lane that drains queued writes into micro-batches bounded by
+ * size and wait time, and applies each batch in one transaction.
+ *
+ * A batch holds row locks on several wallets until it commits. It applies its
+ * writes in ascending wallet ID order, the order transfers, batch requests and
+ * approvals lock wallets in, so that it cannot deadlock with them. The sort is
+ * stable, so writes to the same wallet keep their arrival order.
+ */
+@Slf4j
+class GroupCommitLane implements Runnable {
+
+    private static final Comparator<PendingWrite<?>> BY_WALLET = Comparator.comparing(PendingWrite::walletId);
+
+    private final Thread thread;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite<?>> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer commitTimer;
+
+    private volatile boolean running = true;
+
+    GroupCommitLane(String name, TransactionTemplate transactionTemplate, int maxBatchSize, long maxWaitMs,
+                    int queueCapacity, DistributionSummary batchSizeSummary, Timer commitTimer) {
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.batchSizeSummary = batchSizeSummary;
+        this.commitTimer = commitTimer;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    /**
+     * Queue a write, blocking for up to the given time while the lane is full
+     *
+     * @return false if the lane stayed full
+     */
+    boolean submit(PendingWrite<?> write, long timeoutMs) {
+        if (!running) {
+            throw new IllegalStateException("Group commit lane " + thread.getName() + " is stopped");
+        }
+        try {
+            return queue.offer(write, timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing wallet write", e);
+        }
+    }
+
+    @Override
+    public void run() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Stop requested; commit whatever has been collected and drain the rest.
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Wait for the first write, then keep collecting until the batch is full
+     * or the wait budget measured from the first write is spent
+     */
+    private void collect(List<PendingWrite<?>> batch) throws InterruptedException {
+        PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                return;
+            }
+            PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingWrite<?>> batch) {
+        batchSizeSummary.record(batch.size());
+        batch.sort(BY_WALLET);
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status ->
+                    batch.forEach(PendingWrite::apply)));
+            batch.forEach(PendingWrite::complete);
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} writes failed, retrying them individually: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(this::commitAlone);
+        }
+    }
+
+    /**
+     * Fallback after a failed batch so that one bad write cannot fail its neighbours
+     */
+    private void commitAlone(PendingWrite<?> write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write.apply());
+            write.complete();
+        } catch (RuntimeException e) {
+            write.fail(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.digitalwallet.walletapi.write;
+
+import com.digitalwallet.walletapi.exception.BusinessException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A queued unit of work together with the future its caller is waiting on.
+ * The outcome is held back until the batch it belongs to has committed.
+ *
+ * A write is claimed by its lane when first applied, or abandoned by its caller
+ * after waiting too long, whichever happens first. An abandoned write is never
+ * applied, so its caller can report it as not done.
+ */
+class PendingWrite<T> {
+
+    private static final int QUEUED = 0;
+    private static final int CLAIMED = 1;
+    private static final int ABANDONED = 2;
+
+    private final Long walletId;
+    private final Supplier<T> work;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+    private T result;
+    private BusinessException rejection;
+
+    PendingWrite(Long walletId, Supplier<T> work) {
+        this.walletId = walletId;
+        this.work = work;
+    }
+
+    Long walletId() {
+        return walletId;
+    }
+
+    CompletableFuture<T> future() {
+        return future;
+    }
+
+    /**
+     * Apply the work inside the current transaction, unless the caller has
+     * abandoned it. Business rule violations are raised before any state is
+     * changed, so they only reject this write and do not affect the rest of the
+     * batch.
+     */
+    void apply() {
+        if (!claim()) {
+            return;
+        }
+        result = null;
+        rejection = null;
+        try {
+            result = work.get();
+        } catch (BusinessException e) {
+            rejection = e;
+        }
+    }
+
+    /**
+     * Complete the caller once the enclosing transaction has committed
+     */
+    void complete() {
+        if (rejection != null) {
+            future.completeExceptionally(rejection);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    void fail(Throwable cause) {
+        future.completeExceptionally(cause);
+    }
+
+    /**
+     * Give up on a write the lane has not reached yet
+     *
+     * @return false if the lane has already started applying it
+     */
+    boolean abandon() {
+        return state.compareAndSet(QUEUED, ABANDONED);
+    }
+
+    private boolean claim() {
+        return state.compareAndSet(QUEUED, CLAIMED) || state.get() == CLAIMED;
+    }
+}
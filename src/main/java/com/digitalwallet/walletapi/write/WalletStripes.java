@@ -0,0 +1,148 @@
+package com.digitalwallet.walletapi.write;
+
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.entity.WalletBalanceStripe;
+import com.digitalwallet.walletapi.money.Money;
+import com.digitalwallet.walletapi.repository.WalletBalanceStripeRepository;
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Striped balances for hot wallets.
+ *
+ * A striped wallet keeps part of its balance in K stripe rows. Deposits add to a
+ * random stripe with a single UPDATE and never touch the wallet row, so concurrent
+ * deposits to the same wallet mostly lock different rows. Anything that needs the
+ * exact balance (withdrawals) locks the wallet row and folds the stripes back into
+ * it first. Because the wallet balance is always "wallet row + stripes", a deposit
+ * that goes straight to the wallet row is still correct, which makes the in-memory
+ * registry of striped wallets safe to be briefly stale.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WalletStripes {
+
+    private final WalletRepository walletRepository;
+    private final WalletBalanceStripeRepository stripeRepository;
+    private final Map<Long, Integer> stripeCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        walletRepository.findByStripeCountGreaterThan(0)
+                .forEach(wallet -> stripeCounts.put(wallet.getId(), wallet.getStripeCount()));
+        if (!stripeCounts.isEmpty()) {
+            log.info("Loaded {} striped wallets", stripeCounts.size());
+        }
+    }
+
+    public boolean isStriped(Long walletId) {
+        return stripeCounts.containsKey(walletId);
+    }
+
+    /**
+     * Add to a random stripe of the wallet (minor units). Returns false when the wallet has no
+     * stripes (any more), in which case the caller should credit the wallet row.
+     */
+    public boolean credit(Long walletId, long balanceDelta, long usableDelta) {
+        Integer count = stripeCounts.get(walletId);
+        if (count == null) {
+            return false;
+        }
+        int stripe = ThreadLocalRandom.current().nextInt(count);
+        return stripeRepository.credit(walletId, stripe, balanceDelta, usableDelta) > 0;
+    }
+
+    /**
+     * Fold all stripes into the wallet row. The wallet must be locked (or version
+     * checked) by the current transaction; the stripes are locked here.
+     */
+    public void consolidate(Wallet wallet) {
+        for (WalletBalanceStripe stripe : stripeRepository.findByWalletIdForUpdate(wallet.getId())) {
+            if (stripe.getBalance() == 0 && stripe.getUsableBalance() == 0) {
+                continue;
+            }
+            wallet.setBalance(Money.add(wallet.getBalance(), stripe.getBalance()));
+            wallet.setUsableBalance(Money.add(wallet.getUsableBalance(), stripe.getUsableBalance()));
+            stripe.setBalance(0);
+            stripe.setUsableBalance(0);
+        }
+    }
+
+    /**
+     * Change the number of stripes of a locked wallet; 0 turns striping off.
+     * Existing stripes are consolidated first.
+     */
+    public void configure(Wallet wallet, int count) {
+        consolidate(wallet);
+        stripeRepository.flush();
+        stripeRepository.deleteByWalletId(wallet.getId());
+
+        for (int i = 0; i < count; i++) {
+            stripeRepository.save(WalletBalanceStripe.builder()
+                    .wallet(wallet)
+                    .stripeIndex(i)
+                    .build());
+        }
+        wallet.setStripeCount(count);
+
+        Long walletId = wallet.getId();
+        Runnable register = () -> {
+            if (count > 0) {
+                stripeCounts.put(walletId, count);
+            } else {
+                stripeCounts.remove(walletId);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register.run();
+                }
+            });
+        } else {
+            register.run();
+        }
+        log.info("Wallet {} now has {} balance stripes", walletId, count);
+    }
+
+    /**
+     * Add the summed stripe balances of striped wallets to their outstanding balances
+     */
+    public void applySummedView(List<Wallet> wallets) {
+        List<Long> stripedIds = wallets.stream()
+                .filter(wallet -> wallet.getStripeCount() != null && wallet.getStripeCount() > 0)
+                .map(Wallet::getId)
+                .toList();
+        if (stripedIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, WalletBalanceStripeRepository.StripeTotals> totals = stripeRepository.sumByWalletIds(stripedIds)
+                .stream()
+                .collect(Collectors.toMap(WalletBalanceStripeRepository.StripeTotals::getWalletId, Function.identity()));
+
+        for (Wallet wallet : wallets) {
+            WalletBalanceStripeRepository.StripeTotals total = totals.get(wallet.getId());
+            if (total != null) {
+                wallet.setOutstandingBalance(
+                        Money.add(wallet.getOutstandingBalance(), Money.toMinorUnits(total.getBalance())));
+                wallet.setOutstandingUsableBalance(
+                        Money.add(wallet.getOutstandingUsableBalance(), Money.toMinorUnits(total.getUsableBalance())));
+            }
+        }
+    }
+}
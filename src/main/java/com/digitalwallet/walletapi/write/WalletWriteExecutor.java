@@ -0,0 +1,242 @@
+package com.digitalwallet.walletapi.write;
+
+import com.digitalwallet.walletapi.enums.WalletConcurrencyMode;
+import com.digitalwallet.walletapi.exception.ConcurrentWalletUpdateException;
+import com.digitalwallet.walletapi.exception.WalletWriteTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs balance-changing units of work inside a database transaction.
+ *
+ * By default every unit of work gets its own transaction on the calling thread.
+ * When group commit is enabled, work is queued to a lane chosen by wallet ID and
+ * applied together with other queued work in a single transaction, so that many
+ * concurrent requests share one commit. Work for the same wallet always lands on
+ * the same lane and is applied in arrival order. A caller waits for its write for a
+ * bounded time; a write the lane has not started by then is dropped and reported
+ * as not applied.
+ *
+ * In {@link WalletConcurrencyMode#OPTIMISTIC} mode wallets are read without a row
+ * lock and rely on their version column instead. A version conflict at commit
+ * re-runs the whole unit of work, up to a bounded number of attempts with jittered
+ * exponential backoff. Conflicts are retried in pessimistic mode too, where they
+ * can only come from an approval racing a locked deposit or withdraw.
+ *
+ * In {@link WalletConcurrencyMode#ATOMIC} mode deposits and withdrawals skip the
+ * entity read altogether and change balances with a single conditional UPDATE.
+ */
+@Component
+@Slf4j
+public class WalletWriteExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer commitTimer;
+    private final Counter conflictCounter;
+    private final Counter retryCounter;
+    private final Counter exhaustedCounter;
+
+    @Value("${wallet.write.concurrency:PESSIMISTIC}")
+    private WalletConcurrencyMode concurrencyMode = WalletConcurrencyMode.PESSIMISTIC;
+
+    @Value("${wallet.write.optimistic.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${wallet.write.optimistic.backoff-ms:5}")
+    private long backoffMs;
+
+    @Value("${wallet.write.optimistic.max-backoff-ms:100}")
+    private long maxBackoffMs;
+
+    @Value("${wallet.write.group-commit.enabled:false}")
+    private boolean groupCommitEnabled;
+
+    @Value("${wallet.write.group-commit.lanes:4}")
+    private int laneCount;
+
+    @Value("${wallet.write.group-commit.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${wallet.write.group-commit.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${wallet.write.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${wallet.write.group-commit.await-timeout-ms:30000}")
+    private long awaitTimeoutMs = 30000;
+
+    private GroupCommitLane[] lanes;
+
+    public WalletWriteExecutor(TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.transactionTemplate = transactionTemplate;
+
+        this.batchSizeSummary = DistributionSummary.builder("wallet.write.group-commit.batch.size")
+                .description("Number of writes applied per group commit")
+                .register(meterRegistry);
+
+        this.commitTimer = Timer.builder("wallet.write.group-commit.commit")
+                .description("Time spent applying and committing a group commit batch")
+                .register(meterRegistry);
+
+        this.conflictCounter = Counter.builder("wallet.write.optimistic.conflicts")
+                .description("Total number of optimistic version conflicts on wallet writes")
+                .register(meterRegistry);
+
+        this.retryCounter = Counter.builder("wallet.write.optimistic.retries")
+                .description("Total number of wallet writes re-run after a version conflict")
+                .register(meterRegistry);
+
+        this.exhaustedCounter = Counter.builder("wallet.write.optimistic.exhausted")
+                .description("Total number of wallet writes that gave up after the last attempt")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!groupCommitEnabled) {
+            return;
+        }
+        lanes = new GroupCommitLane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new GroupCommitLane("wallet-group-commit-" + i, transactionTemplate,
+                    maxBatchSize, maxWaitMs, queueCapacity, batchSizeSummary, commitTimer);
+            lanes[i].start();
+        }
+        log.info("Group commit enabled with {} lanes, batch size {}, max wait {} ms",
+                laneCount, maxBatchSize, maxWaitMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (lanes == null) {
+            return;
+        }
+        for (GroupCommitLane lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    /**
+     * How balance-changing work should read and update wallets
+     */
+    public WalletConcurrencyMode getConcurrencyMode() {
+        return concurrencyMode;
+    }
+
+    /**
+     * Execute a unit of work for the given wallet and return its result
+     */
+    public <T> T execute(Long walletId, Supplier<T> work) {
+        return withRetry(() -> executeOnce(walletId, work));
+    }
+
+    /**
+     * Execute a unit of work for the given wallet
+     */
+    public void execute(Long walletId, Runnable work) {
+        execute(walletId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Execute a unit of work in its own transaction, bypassing group commit.
+     * Used by low-volume writes that do not know their wallet up front.
+     */
+    public <T> T executeUnbatched(Supplier<T> work) {
+        return withRetry(() -> transactionTemplate.execute(status -> work.get()));
+    }
+
+    /**
+     * Execute a unit of work in its own transaction, bypassing group commit
+     */
+    public void executeUnbatched(Runnable work) {
+        executeUnbatched(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private <T> T withRetry(Supplier<T> attempt) {
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflictCounter.increment();
+                if (attemptNumber >= maxAttempts) {
+                    exhaustedCounter.increment();
+                    throw new ConcurrentWalletUpdateException(attemptNumber, e);
+                }
+                retryCounter.increment();
+                backoff(attemptNumber);
+            }
+        }
+    }
+
+    /**
+     * Sleep for a random time up to an exponentially growing cap (full jitter)
+     */
+    private void backoff(int attemptNumber) {
+        long sleepMs = ThreadLocalRandom.current().nextLong(backoffCap(attemptNumber) + 1);
+        try {
+            TimeUnit.MILLISECONDS.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off a wallet write", e);
+        }
+    }
+
+    /**
+     * Longest sleep before the given retry: the base backoff doubled per attempt, up to the maximum
+     */
+    long backoffCap(int attemptNumber) {
+        return Math.min(maxBackoffMs, backoffMs << Math.min(attemptNumber - 1, 16));
+    }
+
+    private <T> T executeOnce(Long walletId, Supplier<T> work) {
+        if (lanes == null) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+
+        PendingWrite<T> write = new PendingWrite<>(walletId, work);
+        if (!lanes[Math.floorMod(walletId.hashCode(), lanes.length)].submit(write, awaitTimeoutMs)) {
+            throw new WalletWriteTimeoutException(awaitTimeoutMs);
+        }
+
+        try {
+            return write.future().get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (write.abandon()) {
+                throw new WalletWriteTimeoutException(awaitTimeoutMs);
+            }
+            throw new IllegalStateException("Wallet write for wallet " + walletId
+                    + " did not commit within " + awaitTimeoutMs + " ms, its outcome is unknown", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Wallet write for wallet " + walletId + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a wallet write", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+-- Schema as previously generated by Hibernate from the entities
+
+CREATE SEQUENCE customer_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE wallet_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transaction_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE wallet_balance_stripe_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE posting_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE customers (
+    id         BIGINT       NOT NULL,
+    name       VARCHAR(255) NOT NULL,
+    surname    VARCHAR(255) NOT NULL,
+    tckn       VARCHAR(11)  NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT pk_customers PRIMARY KEY (id),
+    CONSTRAINT uk_customers_tckn UNIQUE (tckn)
+);
+
+CREATE TABLE employees (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    roles    VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_employees PRIMARY KEY (id),
+    CONSTRAINT uk_employees_username UNIQUE (username)
+);
+
+CREATE TABLE wallets (
+    id                  BIGINT         NOT NULL,
+    customer_id         BIGINT         NOT NULL,
+    wallet_name         VARCHAR(255)   NOT NULL,
+    currency            VARCHAR(3)     NOT NULL,
+    active_for_shopping BOOLEAN        NOT NULL,
+    active_for_withdraw BOOLEAN        NOT NULL,
+    balance             NUMERIC(19, 2) NOT NULL,
+    usable_balance      NUMERIC(19, 2) NOT NULL,
+    stripe_count        INTEGER        NOT NULL,
+    version             BIGINT         DEFAULT 0 NOT NULL,
+    created_at          TIMESTAMP(6),
+    CONSTRAINT pk_wallets PRIMARY KEY (id),
+    CONSTRAINT fk_wallets_customer FOREIGN KEY (customer_id) REFERENCES customers (id)
+);
+
+CREATE TABLE wallet_balance_stripes (
+    id             BIGINT         NOT NULL,
+    wallet_id      BIGINT         NOT NULL,
+    stripe_index   INTEGER        NOT NULL,
+    balance        NUMERIC(19, 2) NOT NULL,
+    usable_balance NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT pk_wallet_balance_stripes PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_balance_stripes_wallet_index UNIQUE (wallet_id, stripe_index),
+    CONSTRAINT fk_wallet_balance_stripes_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id)
+);
+
+CREATE TABLE transactions (
+    id                  BIGINT         NOT NULL,
+    wallet_id           BIGINT         NOT NULL,
+    amount              NUMERIC(19, 2) NOT NULL,
+    type                VARCHAR(32)    NOT NULL,
+    opposite_party_type VARCHAR(32)    NOT NULL,
+    opposite_party      VARCHAR(255)   NOT NULL,
+    status              VARCHAR(32)    NOT NULL,
+    transfer_id         VARCHAR(36),
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    CONSTRAINT pk_transactions PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id)
+);
+
+CREATE INDEX idx_transactions_wallet_created_id ON transactions (wallet_id, created_at, id);
+
+CREATE TABLE postings (
+    id             BIGINT         NOT NULL,
+    entry_id       VARCHAR(36)    NOT NULL,
+    transaction_id BIGINT         NOT NULL,
+    account        VARCHAR(32)    NOT NULL,
+    wallet_id      BIGINT,
+    amount         NUMERIC(19, 2) NOT NULL,
+    materialized   BOOLEAN        NOT NULL,
+    created_at     TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_postings PRIMARY KEY (id),
+    CONSTRAINT fk_postings_transaction FOREIGN KEY (transaction_id) REFERENCES transactions (id),
+    CONSTRAINT fk_postings_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id)
+);
+
+CREATE INDEX idx_postings_wallet_materialized ON postings (wallet_id, materialized);
+
+CREATE TABLE idempotency_records (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    scope           VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    status          VARCHAR(32)  NOT NULL,
+    response_status INTEGER,
+    response_body   VARCHAR(32000),
+    created_at      TIMESTAMP(6),
+    CONSTRAINT pk_idempotency_records PRIMARY KEY (id),
+    CONSTRAINT uk_idempotency_records_scope_key UNIQUE (scope, idempotency_key)
+);
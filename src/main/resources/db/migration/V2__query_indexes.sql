@@ -0,0 +1,25 @@
+-- Indexes matched to the repository queries, so that none of them needs a full scan.
+-- Each index lists the queries it serves.
+
+-- TransactionRepository.findByWalletIdAndStatus, findPendingTransactionsByWalletId
+CREATE INDEX idx_transactions_wallet_status ON transactions (wallet_id, status);
+
+-- TransactionRepository.findByWalletIdAndType
+CREATE INDEX idx_transactions_wallet_type ON transactions (wallet_id, type);
+
+-- TransactionRepository.findByTransferId
+CREATE INDEX idx_transactions_transfer ON transactions (transfer_id);
+
+-- WalletRepository.findByCustomerId, findIdsByCustomerId, findByCustomerIdWithMinBalance
+CREATE INDEX idx_wallets_customer_currency ON wallets (customer_id, currency);
+
+-- WalletRepository.findByStripeCountGreaterThan
+CREATE INDEX idx_wallets_stripe_count ON wallets (stripe_count);
+
+-- PostingRepository.findWalletIdsWithOutstanding, findOutstandingByWalletId, sumOutstanding:
+-- leading with the flag turns "all unmaterialized postings" into a range scan as well
+DROP INDEX idx_postings_wallet_materialized;
+CREATE INDEX idx_postings_outstanding ON postings (materialized, wallet_id);
+
+-- IdempotencyRecordRepository.deleteCreatedBefore
+CREATE INDEX idx_idempotency_records_created ON idempotency_records (created_at);
@@ -0,0 +1,11 @@
+-- Logged-out JWTs, kept until they would have expired anyway.
+-- V3 is vendor-specific, under db/vendor/{vendor}.
+
+CREATE TABLE revoked_tokens (
+    token_id   VARCHAR(36)  NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_revoked_tokens PRIMARY KEY (token_id)
+);
+
+-- RevokedTokenRepository.findUnexpired, deleteExpiredBefore
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_at);
@@ -0,0 +1,131 @@
+package com.digitalwallet.walletapi.actuator;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletHealthIndicatorTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private HikariDataSource hikariDataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    @Mock
+    private Connection connection;
+
+    private WalletHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        healthIndicator = new WalletHealthIndicator(dataSource);
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(hikariDataSource);
+        when(hikariDataSource.getHikariPoolMXBean()).thenReturn(pool);
+    }
+
+    /**
+     * Scenario: Every pooled connection is busy and two threads are already waiting for one.
+     *
+     * Expected outcome:
+     *  • The probe reports OUT_OF_SERVICE with the database SATURATED and the pool figures.
+     *  • No connection is borrowed, so the probe does not queue behind requests.
+     */
+    @Test
+    @DisplayName("health should report a saturated pool without borrowing a connection")
+    void health_ShouldReportOutOfService_WhenPoolIsSaturated() throws SQLException {
+        // --- Arrange ---
+        pool(10, 0, 2);
+
+        // --- Act ---
+        Health health = healthIndicator.health();
+
+        // --- Assert ---
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsEntry("database", "SATURATED");
+        assertThat(health.getDetails().get("pool")).isEqualTo(Map.of(
+                "active", 10, "idle", 0, "total", 10, "awaiting", 2));
+
+        // --- Verify ---
+        verify(dataSource, never()).getConnection();
+    }
+
+    /**
+     * Scenario: The pool has idle connections and validating one takes longer than the 5 ms budget.
+     * Expected: the probe reports OUT_OF_SERVICE with the database SLOW, the measured latency and the budget.
+     */
+    @Test
+    @DisplayName("health should report a round trip over the latency budget as out of service")
+    void health_ShouldReportOutOfService_WhenRoundTripExceedsBudget() throws SQLException {
+        // --- Arrange ---
+        ReflectionTestUtils.setField(healthIndicator, "latencyBudgetMs", 5L);
+        pool(1, 4, 0);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return true;
+        });
+
+        // --- Act ---
+        Health health = healthIndicator.health();
+
+        // --- Assert ---
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsEntry("database", "SLOW")
+                .containsEntry("latencyBudgetMs", 5L);
+        assertThat((Long) health.getDetails().get("latencyMs")).isGreaterThanOrEqualTo(50L);
+
+        // --- Verify ---
+        verify(connection).isValid(1);
+        verify(connection).close();
+    }
+
+    /**
+     * Scenario: The pool has idle connections and a connection validates well within the budget.
+     * Expected: the probe reports UP with the database UP.
+     */
+    @Test
+    @DisplayName("health should report UP when a connection validates within the budget")
+    void health_ShouldReportUp_WhenRoundTripIsWithinBudget() throws SQLException {
+        // --- Arrange ---
+        pool(1, 4, 0);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+
+        // --- Act ---
+        Health health = healthIndicator.health();
+
+        // --- Assert ---
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("database", "UP");
+    }
+
+    private void pool(int active, int idle, int awaiting) {
+        when(pool.getActiveConnections()).thenReturn(active);
+        when(pool.getIdleConnections()).thenReturn(idle);
+        when(pool.getTotalConnections()).thenReturn(active + idle);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(awaiting);
+    }
+}
@@ -0,0 +1,60 @@
+package com.digitalwallet.walletapi.actuator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Access rules of /actuator/walletstats, through the application's real security filter chain
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class WalletStatsEndpointSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Scenario: An employee reads the wallet statistics.
+     * Expected: 200 with the customer, wallet and transaction counts.
+     */
+    @Test
+    @DisplayName("walletstats should be served to employees")
+    void walletStats_ShouldBeServedToEmployees() throws Exception {
+        mockMvc.perform(get("/actuator/walletstats").with(user("employee").roles("EMPLOYEE")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers").isNumber())
+                .andExpect(jsonPath("$.wallets").isNumber())
+                .andExpect(jsonPath("$.transactionsByStatus.pending").isNumber());
+    }
+
+    /**
+     * Scenario: A customer reads the wallet statistics.
+     * Expected: 403, since the counts cover every customer.
+     */
+    @Test
+    @DisplayName("walletstats should be refused to customers")
+    void walletStats_ShouldBeRefusedToCustomers() throws Exception {
+        mockMvc.perform(get("/actuator/walletstats").with(user("12345678901").roles("CUSTOMER")))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * Scenario: The wallet statistics are read without a token.
+     * Expected: the request is refused.
+     */
+    @Test
+    @DisplayName("walletstats should be refused to anonymous callers")
+    void walletStats_ShouldBeRefusedToAnonymousCallers() throws Exception {
+        mockMvc.perform(get("/actuator/walletstats"))
+                .andExpect(status().is4xxClientError());
+    }
+}
@@ -0,0 +1,179 @@
+package com.digitalwallet.walletapi.authorization;
+
+import com.digitalwallet.walletapi.dto.request.BatchOperationRequest;
+import com.digitalwallet.walletapi.dto.request.DepositRequest;
+import com.digitalwallet.walletapi.dto.request.WithdrawRequest;
+import com.digitalwallet.walletapi.jwt.CustomUserDetails;
+import com.digitalwallet.walletapi.service.AuthorizationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorizationRulesTest {
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private AuthorizationService authorizationService;
+
+    private AuthorizationRules rules;
+
+    private Authentication employee;
+
+    private Authentication customer;
+
+    @BeforeEach
+    void setUp() {
+        rules = new AuthorizationRules(applicationContext, authorizationService);
+        employee = authentication(CustomUserDetails.createEmployee("employee", "pass", List.of("EMPLOYEE")));
+        customer = authentication(CustomUserDetails.createCustomer("user", "pass", List.of("CUSTOMER"), 1L));
+    }
+
+    /**
+     * Scenario: An EMPLOYEE calls an owner-restricted method.
+     *
+     * Expected outcome:
+     *  • The call is granted from the role mask alone.
+     *  • The ownership check is never invoked.
+     */
+    @Test
+    @DisplayName("isGranted should let an EMPLOYEE through without an ownership check")
+    void isGranted_ShouldGrantEmployeeWithoutCheck() throws Exception {
+        // --- Act ---
+        boolean granted = rules.isGranted(employee, method("deposit"), new Object[]{deposit(10L)});
+
+        // --- Assert ---
+        assertThat(granted).isTrue();
+        verifyNoInteractions(authorizationService);
+    }
+
+    /**
+     * Scenario: A CUSTOMER deposits into a wallet, with the rule targeting request.walletId.
+     *
+     * Expected outcome:
+     *  • The wallet ID is read from the request and passed to isWalletOwner.
+     *  • The decision is the ownership check's answer.
+     */
+    @Test
+    @DisplayName("isGranted should pass the target property to the ownership check")
+    void isGranted_ShouldCheckTargetPropertyForCustomer() throws Exception {
+        // --- Arrange ---
+        when(authorizationService.isWalletOwner(10L)).thenReturn(true);
+        when(authorizationService.isWalletOwner(11L)).thenReturn(false);
+
+        // --- Act & Assert ---
+        assertThat(rules.isGranted(customer, method("deposit"), new Object[]{deposit(10L)})).isTrue();
+        assertThat(rules.isGranted(customer, method("deposit"), new Object[]{deposit(11L)})).isFalse();
+    }
+
+    /**
+     * Scenario: A CUSTOMER submits a batch, with the rule targeting the request's walletIds() method.
+     *
+     * Expected outcome:
+     *  • isWalletOwnerOfAll receives the distinct wallet IDs of the batch.
+     */
+    @Test
+    @DisplayName("isGranted should read a no-argument method as the target")
+    void isGranted_ShouldReadMethodTarget() throws Exception {
+        // --- Arrange ---
+        BatchOperationRequest request = new BatchOperationRequest();
+        request.getDeposits().add(deposit(10L));
+        WithdrawRequest withdraw = new WithdrawRequest();
+        withdraw.setWalletId(12L);
+        request.getWithdrawals().add(withdraw);
+        when(authorizationService.isWalletOwnerOfAll(Set.of(10L, 12L))).thenReturn(true);
+
+        // --- Act ---
+        boolean granted = rules.isGranted(customer, method("batch"), new Object[]{request});
+
+        // --- Assert ---
+        assertThat(granted).isTrue();
+    }
+
+    /**
+     * Scenario: A CUSTOMER calls an employee-only method.
+     *
+     * Expected outcome:
+     *  • The call is denied without consulting the authorization service.
+     */
+    @Test
+    @DisplayName("isGranted should deny a CUSTOMER an employee-only method")
+    void isGranted_ShouldDenyCustomerEmployeeOnlyMethod() throws Exception {
+        // --- Act ---
+        boolean granted = rules.isGranted(customer, method("approve"), new Object[]{1L});
+
+        // --- Assert ---
+        assertThat(granted).isFalse();
+        verifyNoInteractions(authorizationService);
+    }
+
+    /**
+     * Scenario: A rule targets a property the parameter type does not have.
+     *
+     * Expected outcome:
+     *  • Compiling the rule fails with a message naming the bad target.
+     */
+    @Test
+    @DisplayName("isGranted should reject a target naming no property")
+    void isGranted_ShouldRejectUnknownTarget() throws Exception {
+        // --- Act & Assert ---
+        assertThatThrownBy(() -> rules.isGranted(customer, method("misconfigured"), new Object[]{deposit(10L)}))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("request.fromWalletId");
+    }
+
+    private static Method method(String name) {
+        for (Method method : Endpoints.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static DepositRequest deposit(Long walletId) {
+        DepositRequest request = new DepositRequest();
+        request.setWalletId(walletId);
+        return request;
+    }
+
+    private static Authentication authentication(CustomUserDetails user) {
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    @SuppressWarnings("unused")
+    static class Endpoints {
+
+        @Authorize(value = AccessRule.WALLET_OWNER, target = "request.walletId")
+        void deposit(DepositRequest request) {
+        }
+
+        @Authorize(value = AccessRule.WALLET_OWNER_OF_ALL, target = "request.walletIds")
+        void batch(BatchOperationRequest request) {
+        }
+
+        @Authorize(AccessRule.EMPLOYEE)
+        void approve(Long transactionId) {
+        }
+
+        @Authorize(value = AccessRule.WALLET_OWNER, target = "request.fromWalletId")
+        void misconfigured(DepositRequest request) {
+        }
+    }
+}
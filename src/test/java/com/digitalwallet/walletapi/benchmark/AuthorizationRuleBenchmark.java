@@ -0,0 +1,146 @@
+package com.digitalwallet.walletapi.benchmark;
+
+import com.digitalwallet.walletapi.authorization.AuthorizationRules;
+import com.digitalwallet.walletapi.controller.WalletController;
+import com.digitalwallet.walletapi.dto.request.DepositRequest;
+import com.digitalwallet.walletapi.jwt.CustomUserDetails;
+import com.digitalwallet.walletapi.service.AuthorizationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares authorizing a deposit with the former @PreAuthorize expression, evaluated
+ * the way Spring Security does on every call, and with the compiled @Authorize rule.
+ * Both paths call the same ownership check, so only the evaluation overhead differs.
+ * Run with {@code mvn test -Dtest=AuthorizationRuleBenchmark -Dbenchmark=true}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationRuleBenchmark {
+
+    private static final String DEPOSIT_EXPRESSION =
+            "hasRole('EMPLOYEE') or @authService.isWalletOwner(#request.walletId)";
+
+    private final AuthorizationService authService = new OwnsWalletOne();
+
+    private Authentication customer;
+    private Authentication employee;
+    private WalletController controller;
+    private Method deposit;
+    private Object[] arguments;
+
+    private DefaultMethodSecurityExpressionHandler expressionHandler;
+    private Expression expression;
+    private AuthorizationRules rules;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        CustomUserDetails customerDetails = CustomUserDetails.createCustomer("user", "pass", List.of("CUSTOMER"), 1L);
+        customer = new UsernamePasswordAuthenticationToken(customerDetails, null, customerDetails.getAuthorities());
+        CustomUserDetails employeeDetails = CustomUserDetails.createEmployee("employee", "pass", List.of("EMPLOYEE"));
+        employee = new UsernamePasswordAuthenticationToken(employeeDetails, null, employeeDetails.getAuthorities());
+
+        controller = new WalletController(null, null, null);
+        deposit = WalletController.class.getMethod("deposit", String.class, DepositRequest.class);
+        DepositRequest request = new DepositRequest();
+        request.setWalletId(1L);
+        arguments = new Object[]{null, request};
+
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("authService", authService);
+        context.refresh();
+        expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(context);
+        expression = expressionHandler.getExpressionParser().parseExpression(DEPOSIT_EXPRESSION);
+
+        rules = new AuthorizationRules(context, authService);
+    }
+
+    @Benchmark
+    public boolean spelCustomer() {
+        return evaluate(customer);
+    }
+
+    @Benchmark
+    public boolean compiledCustomer() {
+        return rules.isGranted(customer, deposit, arguments);
+    }
+
+    @Benchmark
+    public boolean spelEmployee() {
+        return evaluate(employee);
+    }
+
+    @Benchmark
+    public boolean compiledEmployee() {
+        return rules.isGranted(employee, deposit, arguments);
+    }
+
+    private boolean evaluate(Authentication authentication) {
+        EvaluationContext context = expressionHandler.createEvaluationContext(
+                () -> authentication, new SimpleMethodInvocation(controller, deposit, arguments));
+        return ExpressionUtils.evaluateAsBoolean(expression, context);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthorizationRuleBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+
+    /**
+     * Ownership check without a security context or database: the caller owns wallet 1
+     */
+    private static class OwnsWalletOne implements AuthorizationService {
+
+        @Override
+        public boolean isAccountOwner(Long targetCustomerId) {
+            return targetCustomerId == 1L;
+        }
+
+        @Override
+        public boolean isWalletOwner(Long walletId) {
+            return walletId == 1L;
+        }
+
+        @Override
+        public boolean isWalletOwnerOfAll(Collection<Long> walletIds) {
+            return walletIds.stream().allMatch(walletId -> walletId == 1L);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.digitalwallet.walletapi.benchmark;
+
+import com.digitalwallet.walletapi.enums.Currency;
+import com.digitalwallet.walletapi.money.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one deposit, withdraw and approval cycle of the balance hot path done with
+ * BigDecimal (as before) and with minor-unit longs. Run with
+ * {@code mvn test -Dtest=BalanceArithmeticBenchmark -Dbenchmark=true}; the GC profiler
+ * reports the bytes allocated per cycle.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceArithmeticBenchmark {
+
+    private final BigDecimal decimalThreshold = new BigDecimal("1000");
+    private final BigDecimal decimalAmount = new BigDecimal("250.00");
+    private BigDecimal decimalBalance = new BigDecimal("5000.00");
+    private BigDecimal decimalUsableBalance = new BigDecimal("5000.00");
+
+    private final long threshold = 100_000L;
+    private final long amount = 25_000L;
+    private long balance = 500_000L;
+    private long usableBalance = 500_000L;
+
+    private Money moneyBalance = Money.ofMinorUnits(500_000L, Currency.TRY);
+    private Money moneyUsableBalance = Money.ofMinorUnits(500_000L, Currency.TRY);
+    private final Money moneyAmount = Money.ofMinorUnits(25_000L, Currency.TRY);
+    private final Money moneyThreshold = Money.ofMinorUnits(100_000L, Currency.TRY);
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        // deposit
+        boolean pending = decimalAmount.compareTo(decimalThreshold) > 0;
+        decimalBalance = decimalBalance.add(decimalAmount);
+        if (!pending) {
+            decimalUsableBalance = decimalUsableBalance.add(decimalAmount);
+        }
+        // withdraw, reserved as pending and then approved
+        if (decimalUsableBalance.compareTo(decimalAmount) >= 0) {
+            decimalUsableBalance = decimalUsableBalance.subtract(decimalAmount);
+            decimalBalance = decimalBalance.subtract(decimalAmount);
+        }
+        return decimalBalance;
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        boolean pending = amount > threshold;
+        balance = Money.add(balance, amount);
+        if (!pending) {
+            usableBalance = Money.add(usableBalance, amount);
+        }
+        if (usableBalance >= amount) {
+            usableBalance = Money.subtract(usableBalance, amount);
+            balance = Money.subtract(balance, amount);
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public Money moneyValues() {
+        boolean pending = moneyAmount.isGreaterThan(moneyThreshold);
+        moneyBalance = moneyBalance.plus(moneyAmount);
+        if (!pending) {
+            moneyUsableBalance = moneyUsableBalance.plus(moneyAmount);
+        }
+        if (!moneyUsableBalance.isLessThan(moneyAmount)) {
+            moneyUsableBalance = moneyUsableBalance.minus(moneyAmount);
+            moneyBalance = moneyBalance.minus(moneyAmount);
+        }
+        return moneyBalance;
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BalanceArithmeticBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
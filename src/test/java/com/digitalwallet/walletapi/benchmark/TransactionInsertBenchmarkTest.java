@@ -0,0 +1,89 @@
+package com.digitalwallet.walletapi.benchmark;
+
+import com.digitalwallet.walletapi.entity.Transaction;
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.OppositePartyType;
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.repository.TransactionRepository;
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how fast transaction rows can be inserted through JPA, and how many
+ * JDBC statements that takes. Run with {@code mvn test -Dtest=TransactionInsertBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate=WARN",
+        "logging.level.com.digitalwallet.walletapi=WARN"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionInsertBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int ROWS_PER_ROUND = 10_000;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void insertThroughput() {
+        Long walletId = walletRepository.findAll().get(0).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            insertRound(walletId);
+        }
+
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            insertRound(walletId);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long rows = (long) MEASURED_ROUNDS * ROWS_PER_ROUND;
+
+        System.out.printf("Inserted %d transactions in %.2f s: %.0f rows/s, %d JDBC statements prepared%n",
+                rows, seconds, rows / seconds, statistics.getPrepareStatementCount());
+    }
+
+    private void insertRound(Long walletId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Wallet wallet = walletRepository.getReferenceById(walletId);
+            List<Transaction> transactions = new ArrayList<>(ROWS_PER_ROUND);
+            for (int i = 0; i < ROWS_PER_ROUND; i++) {
+                transactions.add(Transaction.builder()
+                        .wallet(wallet)
+                        .amount(1_000L)
+                        .type(TransactionType.DEPOSIT)
+                        .oppositePartyType(OppositePartyType.PAYMENT)
+                        .oppositeParty("PAY" + i)
+                        .status(TransactionStatus.APPROVED)
+                        .build());
+            }
+            transactionRepository.saveAll(transactions);
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.digitalwallet.walletapi.controller;
+
+import com.digitalwallet.walletapi.entity.Customer;
+import com.digitalwallet.walletapi.jwt.CustomUserDetails;
+import com.digitalwallet.walletapi.ownership.WalletOwnershipIndex;
+import com.digitalwallet.walletapi.repository.CustomerRepository;
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ownership checks of the transaction history endpoints, run against the sample
+ * data through the application's real security chain.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionHistoryAuthorizationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @MockitoSpyBean
+    private WalletOwnershipIndex walletOwnershipIndex;
+
+    private Customer owner;
+    private Long ownWalletId;
+    private Long otherWalletId;
+
+    @BeforeEach
+    void setUp() {
+        owner = customerRepository.findByTckn("12345678901").orElseThrow();
+        Customer other = customerRepository.findByTckn("12345678902").orElseThrow();
+        ownWalletId = walletRepository.findIdsByCustomerId(owner.getId()).get(0);
+        otherWalletId = walletRepository.findIdsByCustomerId(other.getId()).get(0);
+    }
+
+    /**
+     * Scenario: A customer lists the transactions of one of their own wallets.
+     * Expected: 200 with the page, after the ownership index confirmed the wallet is theirs.
+     */
+    @Test
+    @DisplayName("listTransactions should serve a customer's own wallet history")
+    void listTransactions_ShouldServeOwnWalletHistory() throws Exception {
+        mockMvc.perform(get("/api/transactions/wallets/{walletId}", ownWalletId).with(user(customer())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items").isArray());
+
+        verify(walletOwnershipIndex).isOwner(ownWalletId, owner.getId());
+    }
+
+    /**
+     * Scenario: A customer lists, then exports, the transactions of another customer's wallet.
+     * Expected: both are refused with 403 once the ownership index reports another owner.
+     */
+    @Test
+    @DisplayName("listTransactions and exportTransactions should refuse another customer's wallet")
+    void transactionHistory_ShouldRefuseAnotherCustomersWallet() throws Exception {
+        mockMvc.perform(get("/api/transactions/wallets/{walletId}", otherWalletId).with(user(customer())))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/transactions/wallets/{walletId}/export", otherWalletId).with(user(customer())))
+                .andExpect(status().isForbidden());
+
+        verify(walletOwnershipIndex, times(2)).isOwner(otherWalletId, owner.getId());
+    }
+
+    private CustomUserDetails customer() {
+        return CustomUserDetails.createCustomer(owner.getTckn(), "cust123", List.of("CUSTOMER"), owner.getId());
+    }
+}
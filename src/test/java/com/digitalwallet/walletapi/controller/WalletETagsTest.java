@@ -0,0 +1,60 @@
+package com.digitalwallet.walletapi.controller;
+
+import com.digitalwallet.walletapi.entity.Customer;
+import com.digitalwallet.walletapi.entity.Wallet;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WalletETagsTest {
+
+    /**
+     * Scenario: The same wallet state is read twice, then changes through a row write
+     * and through a striped deposit.
+     *
+     * Expected outcome:
+     *  • Equal states get equal strong ETags.
+     *  • A new row version or a new outstanding balance gets a different ETag.
+     */
+    @Test
+    @DisplayName("of should change exactly when the wallet's revision changes")
+    void of_ShouldFollowTheWalletRevision() {
+        String tag = WalletETags.of(wallet(1L, 3L, 0L));
+
+        assertThat(tag).startsWith("\"").endsWith("\"");
+        assertThat(WalletETags.of(wallet(1L, 3L, 0L))).isEqualTo(tag);
+        assertThat(WalletETags.of(wallet(1L, 4L, 0L))).isNotEqualTo(tag);
+        assertThat(WalletETags.of(wallet(1L, 3L, 5_000L))).isNotEqualTo(tag);
+        assertThat(WalletETags.of(wallet(2L, 3L, 0L))).isNotEqualTo(tag);
+    }
+
+    /**
+     * Scenario: A customer's wallet list is read before and after a wallet is added.
+     * Expected: the list's ETag changes, while the same list keeps its ETag.
+     */
+    @Test
+    @DisplayName("of should change when a wallet is added to the list")
+    void ofList_ShouldChangeWhenAWalletIsAdded() {
+        List<Wallet> one = List.of(wallet(1L, 3L, 0L));
+        List<Wallet> two = List.of(wallet(1L, 3L, 0L), wallet(2L, 0L, 0L));
+
+        assertThat(WalletETags.of(one)).isEqualTo(WalletETags.of(List.of(wallet(1L, 3L, 0L))));
+        assertThat(WalletETags.of(two)).isNotEqualTo(WalletETags.of(one));
+        assertThat(WalletETags.of(List.<Wallet>of())).isNotEqualTo(WalletETags.of(one));
+    }
+
+    private static Wallet wallet(long id, long version, long outstandingBalance) {
+        return Wallet.builder()
+                .id(id)
+                .customer(Customer.builder().id(1L).build())
+                .balance(10_000L)
+                .usableBalance(10_000L)
+                .outstandingBalance(outstandingBalance)
+                .outstandingUsableBalance(outstandingBalance)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,186 @@
+package com.digitalwallet.walletapi.engine;
+
+import com.digitalwallet.walletapi.cache.WalletCache;
+import com.digitalwallet.walletapi.entity.Transaction;
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.OppositePartyType;
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.repository.TransactionRepository;
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import com.digitalwallet.walletapi.write.WalletStripes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceEngineTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WalletStripes walletStripes;
+
+    private BalanceEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        WalletCache walletCache = new WalletCache(new SimpleMeterRegistry());
+        walletCache.init();
+        engine = new BalanceEngine(walletRepository, transactionRepository,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), walletStripes, walletCache);
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "shardCount", 1);
+        ReflectionTestUtils.setField(engine, "ringSize", 8);
+        ReflectionTestUtils.setField(engine, "persistBatchSize", 10);
+        ReflectionTestUtils.setField(engine, "persistIntervalMs", 1L);
+        ReflectionTestUtils.setField(engine, "persistQueueCapacity", 4);
+        ReflectionTestUtils.setField(engine, "persistRetryMs", 1L);
+        ReflectionTestUtils.setField(engine, "awaitTimeoutMs", 5_000L);
+
+        Wallet wallet = Wallet.builder()
+                .id(1L)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .balance(10_000L)
+                .usableBalance(10_000L)
+                .build();
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.stop();
+    }
+
+    /**
+     * Scenario: An approved deposit of 50.00 is recorded on a wallet holding 100.00.
+     * Expected: by the time the call returns, the transaction and the new balances of 150.00 are written.
+     */
+    @Test
+    @DisplayName("record should return only once the change is written")
+    void record_ShouldReturnOnlyOnceWritten() {
+        // --- Act ---
+        engine.record(1L, TransactionType.DEPOSIT, 5_000L, TransactionStatus.APPROVED,
+                OppositePartyType.IBAN, "TR00");
+
+        // --- Assert ---
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> transactions = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(transactions.capture());
+        assertThat(transactions.getValue()).singleElement().satisfies(transaction -> {
+            assertThat(transaction.getAmount()).isEqualTo(5_000L);
+            assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.APPROVED);
+        });
+        verify(walletRepository).overwriteBalances(1L, 15_000L, 15_000L);
+        verify(transactionManager, atLeastOnce()).commit(any());
+    }
+
+    /**
+     * Scenario: A pending deposit of 50.00 is approved, and then approved a second time.
+     *
+     * Expected outcome:
+     *  • The decision is written with the conditional update in the same batch as the new usable balance.
+     *  • The second approval finds the transaction no longer pending and fails without writing anything.
+     */
+    @Test
+    @DisplayName("settle should write the decision with the balances and only once")
+    void settle_ShouldWriteDecisionWithBalancesOnlyOnce() {
+        // --- Arrange ---
+        Transaction pending = Transaction.builder().id(10L).status(TransactionStatus.PENDING).build();
+        Transaction approved = Transaction.builder().id(10L).status(TransactionStatus.APPROVED).build();
+        when(transactionRepository.findById(10L)).thenReturn(Optional.of(pending), Optional.of(approved));
+        when(transactionRepository.decidePending(10L, TransactionStatus.APPROVED)).thenReturn(1);
+
+        // --- Act ---
+        engine.settle(1L, 10L, TransactionType.DEPOSIT, 5_000L, TransactionStatus.APPROVED);
+
+        // --- Assert ---
+        verify(transactionRepository).decidePending(10L, TransactionStatus.APPROVED);
+        verify(walletRepository).overwriteBalances(1L, 10_000L, 15_000L);
+
+        assertThatThrownBy(() -> engine.settle(1L, 10L, TransactionType.DEPOSIT, 5_000L,
+                TransactionStatus.APPROVED))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Only pending transactions");
+        verify(transactionRepository, times(1)).decidePending(anyLong(), any());
+        verify(walletRepository, times(1)).overwriteBalances(anyLong(), anyLong(), anyLong());
+    }
+
+    /**
+     * Scenario: The first attempt to write a deposit fails because the database is unreachable.
+     * Expected: the batch is retried and the caller returns normally once it is written.
+     */
+    @Test
+    @DisplayName("record should retry a failed write and return once it succeeds")
+    void record_ShouldRetryTransientPersistFailures() {
+        // --- Arrange ---
+        when(walletRepository.overwriteBalances(1L, 15_000L, 15_000L))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(1);
+
+        // --- Act ---
+        engine.record(1L, TransactionType.DEPOSIT, 5_000L, TransactionStatus.APPROVED,
+                OppositePartyType.IBAN, "TR00");
+
+        // --- Assert ---
+        verify(walletRepository, times(2)).overwriteBalances(1L, 15_000L, 15_000L);
+        verify(transactionManager, atLeastOnce()).rollback(any());
+    }
+
+    /**
+     * Scenario: The database is down while a deposit waits to be written, and the engine is stopped.
+     *
+     * Expected outcome:
+     *  • The caller is not answered while the write keeps failing.
+     *  • On shutdown the engine gives up and fails the caller instead of acknowledging an unwritten change.
+     */
+    @Test
+    @DisplayName("stop should fail callers whose changes could not be written")
+    void stop_ShouldFailCallersWhoseChangesWereNotWritten() throws Exception {
+        // --- Arrange ---
+        when(walletRepository.overwriteBalances(eq(1L), anyLong(), anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        CompletableFuture<Void> caller = CompletableFuture.runAsync(() -> engine.record(1L,
+                TransactionType.DEPOSIT, 5_000L, TransactionStatus.APPROVED, OppositePartyType.IBAN, "TR00"));
+        verify(walletRepository, timeout(5_000).atLeast(2)).overwriteBalances(eq(1L), anyLong(), anyLong());
+        assertThat(caller).isNotDone();
+
+        // --- Act ---
+        engine.stop();
+
+        // --- Assert ---
+        assertThatThrownBy(() -> caller.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not written before shutdown");
+    }
+}
@@ -0,0 +1,218 @@
+package com.digitalwallet.walletapi.engine;
+
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.OppositePartyType;
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.exception.InsufficientBalanceException;
+import com.digitalwallet.walletapi.exception.WalletNotActiveException;
+import com.digitalwallet.walletapi.exception.WalletNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BalanceShardTest {
+
+    private final BlockingQueue<PersistRecord> persisted = new LinkedBlockingQueue<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private BalanceShard shard;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (shard != null) {
+            shard.stop();
+        }
+    }
+
+    /**
+     * Scenario: An approved deposit of 50.00 and then an approved withdraw of 30.00
+     * reach a wallet holding 100.00.
+     *
+     * Expected outcome:
+     *  • Each applied command is handed to the persister with the balances right after it.
+     *  • Neither caller is completed by the shard; that is left to the persister.
+     *  • The wallet is loaded from the database only once.
+     */
+    @Test
+    @DisplayName("apply should hand each applied command to the persister without completing it")
+    void apply_ShouldHandAppliedCommandsToThePersister() throws Exception {
+        // --- Arrange ---
+        start(60_000L, claim -> true);
+        BalanceCommand deposit = record(TransactionType.DEPOSIT, 5_000L, OppositePartyType.IBAN);
+        BalanceCommand withdraw = record(TransactionType.WITHDRAW, 3_000L, OppositePartyType.IBAN);
+
+        // --- Act ---
+        shard.submit(deposit);
+        shard.submit(withdraw);
+
+        // --- Assert ---
+        PersistRecord first = persisted.poll(5, TimeUnit.SECONDS);
+        PersistRecord second = persisted.poll(5, TimeUnit.SECONDS);
+        assertThat(first.command()).isSameAs(deposit);
+        assertThat(first.balance()).isEqualTo(15_000L);
+        assertThat(first.usableBalance()).isEqualTo(15_000L);
+        assertThat(second.command()).isSameAs(withdraw);
+        assertThat(second.balance()).isEqualTo(12_000L);
+        assertThat(second.usableBalance()).isEqualTo(12_000L);
+
+        assertThat(deposit.getResult()).isNotDone();
+        assertThat(withdraw.getResult()).isNotDone();
+        assertThat(loads).hasValue(1);
+    }
+
+    /**
+     * Scenario: A withdraw exceeds the usable balance, a payment targets a wallet closed
+     * for shopping, and a deposit targets a wallet that does not exist.
+     * Expected: each caller gets its business exception and nothing is handed to the persister.
+     */
+    @Test
+    @DisplayName("apply should reject commands that break a rule without persisting them")
+    void apply_ShouldRejectRuleViolations() {
+        // --- Arrange ---
+        start(60_000L, claim -> true);
+        BalanceCommand overdraft = record(TransactionType.WITHDRAW, 10_001L, OppositePartyType.IBAN);
+        BalanceCommand payment = BalanceCommand.record(2L, TransactionType.WITHDRAW, 100L,
+                TransactionStatus.APPROVED, OppositePartyType.PAYMENT, "SHOP");
+        BalanceCommand missing = BalanceCommand.record(99L, TransactionType.DEPOSIT, 100L,
+                TransactionStatus.APPROVED, OppositePartyType.IBAN, "TR00");
+
+        // --- Act ---
+        shard.submit(overdraft);
+        shard.submit(payment);
+        shard.submit(missing);
+
+        // --- Assert ---
+        assertThatThrownBy(() -> overdraft.getResult().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(InsufficientBalanceException.class);
+        assertThatThrownBy(() -> payment.getResult().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(WalletNotActiveException.class);
+        assertThatThrownBy(() -> missing.getResult().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(WalletNotFoundException.class);
+        assertThat(persisted).isEmpty();
+    }
+
+    /**
+     * Scenario: A pending deposit of 50.00 is approved, and another transaction whose
+     * settlement claim is refused is approved too.
+     *
+     * Expected outcome:
+     *  • The claimed approval moves the amount into the usable balance and is handed to the persister.
+     *  • The refused one fails as not pending and changes nothing.
+     */
+    @Test
+    @DisplayName("settle should apply only the decisions whose transaction it could claim")
+    void settle_ShouldApplyOnlyClaimedDecisions() throws Exception {
+        // --- Arrange ---
+        start(60_000L, transactionId -> transactionId == 10L);
+        BalanceCommand claimed = BalanceCommand.settle(1L, 10L, TransactionType.DEPOSIT, 5_000L,
+                TransactionStatus.APPROVED);
+        BalanceCommand refused = BalanceCommand.settle(1L, 11L, TransactionType.DEPOSIT, 5_000L,
+                TransactionStatus.APPROVED);
+
+        // --- Act ---
+        shard.submit(refused);
+        shard.submit(claimed);
+
+        // --- Assert ---
+        assertThatThrownBy(() -> refused.getResult().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Only pending transactions");
+
+        PersistRecord record = persisted.poll(5, TimeUnit.SECONDS);
+        assertThat(record.command()).isSameAs(claimed);
+        assertThat(record.balance()).isEqualTo(10_000L);
+        assertThat(record.usableBalance()).isEqualTo(15_000L);
+        assertThat(persisted).isEmpty();
+    }
+
+    /**
+     * Scenario: With states dropped as soon as they are idle, two deposits of 50.00 reach a
+     * wallet holding 100.00 before either is written, then both are written and a third arrives.
+     *
+     * Expected outcome:
+     *  • The second deposit builds on the first: a state with unwritten changes is kept.
+     *  • Once both are written the state is dropped, and the third deposit starts again
+     *    from the wallet row, which is loaded a second time.
+     */
+    @Test
+    @DisplayName("apply should drop an idle state only once its changes are written")
+    void apply_ShouldReloadIdleStateOnlyOnceWritten() throws Exception {
+        // --- Arrange ---
+        start(0L, claim -> true);
+        BalanceCommand first = record(TransactionType.DEPOSIT, 5_000L, OppositePartyType.IBAN);
+        BalanceCommand second = record(TransactionType.DEPOSIT, 5_000L, OppositePartyType.IBAN);
+        BalanceCommand third = record(TransactionType.DEPOSIT, 5_000L, OppositePartyType.IBAN);
+
+        // --- Act ---
+        shard.submit(first);
+        PersistRecord firstRecord = persisted.poll(5, TimeUnit.SECONDS);
+        shard.submit(second);
+        PersistRecord secondRecord = persisted.poll(5, TimeUnit.SECONDS);
+
+        first.getResult().complete(null);
+        second.getResult().complete(null);
+        Thread.sleep(100); // lets the idle shard sweep its states
+
+        shard.submit(third);
+        PersistRecord thirdRecord = persisted.poll(5, TimeUnit.SECONDS);
+
+        // --- Assert ---
+        assertThat(firstRecord.balance()).isEqualTo(15_000L);
+        assertThat(secondRecord.balance()).isEqualTo(20_000L);
+        assertThat(thirdRecord.balance()).isEqualTo(15_000L);
+        assertThat(loads).hasValue(2);
+    }
+
+    /**
+     * Scenario: A command is submitted after the shard has stopped.
+     * Expected: it is refused at once rather than left waiting forever.
+     */
+    @Test
+    @DisplayName("submit should refuse commands once the shard is stopped")
+    void submit_ShouldRefuseCommandsAfterStop() throws InterruptedException {
+        // --- Arrange ---
+        start(60_000L, claim -> true);
+        shard.stop();
+
+        // --- Act & Assert ---
+        assertThatThrownBy(() -> shard.submit(record(TransactionType.DEPOSIT, 100L, OppositePartyType.IBAN)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("stopped");
+    }
+
+    private void start(long stateIdleMs, Predicate<Long> settlementClaim) {
+        Map<Long, Wallet> wallets = Map.of(
+                1L, wallet(1L, true),
+                2L, wallet(2L, false));
+        shard = new BalanceShard("test-shard", 8, stateIdleMs, walletId -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(wallets.get(walletId));
+        }, settlementClaim, persisted::add);
+        shard.start();
+    }
+
+    private static BalanceCommand record(TransactionType type, long amount, OppositePartyType oppositePartyType) {
+        return BalanceCommand.record(1L, type, amount, TransactionStatus.APPROVED, oppositePartyType, "TR00");
+    }
+
+    private static Wallet wallet(Long id, boolean active) {
+        return Wallet.builder()
+                .id(id)
+                .activeForShopping(active)
+                .activeForWithdraw(true)
+                .balance(10_000L)
+                .usableBalance(10_000L)
+                .build();
+    }
+}
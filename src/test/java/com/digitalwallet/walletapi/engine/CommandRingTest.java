@@ -0,0 +1,133 @@
+package com.digitalwallet.walletapi.engine;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommandRingTest {
+
+    /**
+     * Scenario: Rings are created with capacities that are not powers of two, or too small.
+     * Expected: each is rejected with an IllegalArgumentException.
+     */
+    @Test
+    @DisplayName("constructor should require a power-of-two capacity")
+    void constructor_ShouldRejectCapacitiesThatAreNotPowersOfTwo() {
+        for (int capacity : new int[]{0, 1, 3, 6, 1000}) {
+            assertThatThrownBy(() -> new CommandRing<String>(capacity))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("power of two");
+        }
+    }
+
+    /**
+     * Scenario: A ring of four is filled, one more entry is offered, and then it is drained and reused.
+     *
+     * Expected outcome:
+     *  • The fifth offer is refused while the ring is full.
+     *  • Entries come out in the order they went in, then poll returns null.
+     *  • Freed slots are reused across the wrap-around.
+     */
+    @Test
+    @DisplayName("offer should refuse entries once full and poll should return them in order")
+    void offerAndPoll_ShouldBeFifoAndBounded() {
+        // --- Arrange ---
+        CommandRing<String> ring = new CommandRing<>(4);
+
+        // --- Act & Assert ---
+        for (String entry : List.of("a", "b", "c", "d")) {
+            assertThat(ring.offer(entry)).isTrue();
+        }
+        assertThat(ring.offer("e")).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        assertThat(ring.poll()).isEqualTo("a");
+        assertThat(ring.poll()).isEqualTo("b");
+        assertThat(ring.offer("e")).isTrue();
+        assertThat(ring.offer("f")).isTrue();
+        assertThat(ring.offer("g")).isFalse();
+
+        List<String> rest = new ArrayList<>();
+        for (String entry = ring.poll(); entry != null; entry = ring.poll()) {
+            rest.add(entry);
+        }
+        assertThat(rest).containsExactly("c", "d", "e", "f");
+        assertThat(ring.size()).isZero();
+    }
+
+    /**
+     * Scenario: Four producers each publish 10,000 numbered entries into a small ring
+     * while one consumer drains it.
+     *
+     * Expected outcome:
+     *  • Every entry is consumed exactly once.
+     *  • Each producer's entries come out in the order it published them.
+     */
+    @Test
+    @DisplayName("the ring should deliver every entry once, in per-producer order, under contention")
+    void ring_ShouldDeliverEveryEntryOnceUnderConcurrentProducers() throws Exception {
+        // --- Arrange ---
+        int producers = 4;
+        int perProducer = 10_000;
+        CommandRing<long[]> ring = new CommandRing<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        List<Future<?>> published = new ArrayList<>();
+
+        // --- Act ---
+        try {
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                published.add(pool.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < perProducer; i++) {
+                        long[] entry = {producer, i};
+                        while (!ring.offer(entry)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            Map<Long, Long> nextByProducer = new HashMap<>();
+            int consumed = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (consumed < producers * perProducer && System.nanoTime() < deadline) {
+                long[] entry = ring.poll();
+                if (entry == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                long expected = nextByProducer.getOrDefault(entry[0], 0L);
+                assertThat(entry[1]).isEqualTo(expected);
+                nextByProducer.put(entry[0], expected + 1);
+                consumed++;
+            }
+            for (Future<?> producer : published) {
+                producer.get(5, TimeUnit.SECONDS);
+            }
+
+            // --- Assert ---
+            assertThat(consumed).isEqualTo(producers * perProducer);
+            assertThat(nextByProducer).hasSize(producers).allSatisfy((producer, next) ->
+                    assertThat(next).isEqualTo((long) perProducer));
+            assertThat(ring.poll()).isNull();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.digitalwallet.walletapi.jwt;
+
+import com.digitalwallet.walletapi.entity.Employee;
+import com.digitalwallet.walletapi.repository.CustomerRepository;
+import com.digitalwallet.walletapi.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CustomUserDetailsService userDetailsService;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsService = new CustomUserDetailsService(customerRepository, employeeRepository, meterRegistry);
+        userDetailsService.init();
+
+        employee = Employee.builder().username("employee").password("old").roles("ROLE_EMPLOYEE").build();
+        when(employeeRepository.findByUsername("employee")).thenReturn(Optional.of(employee));
+    }
+
+    /**
+     * Scenario: An employee logs in twice, changes their password, and logs in again.
+     *
+     * Expected outcome:
+     *  • The second lookup is answered from the cache.
+     *  • The update evicts the cached user, so the third lookup reads the new password.
+     *  • Hits and misses are counted.
+     */
+    @Test
+    void loadUserByUsername_ShouldCacheUntilEmployeeChanges() {
+        // --- Act ---
+        userDetailsService.loadUserByUsername("employee");
+        userDetailsService.loadUserByUsername("employee");
+
+        employee.setPassword("new");
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("userDetailsService", userDetailsService);
+        new UserDetailsEvictionListener(beans.getBeanProvider(CustomUserDetailsService.class)).userChanged(employee);
+
+        // --- Assert ---
+        assertThat(userDetailsService.loadUserByUsername("employee").getPassword()).isEqualTo("new");
+        assertThat(meterRegistry.get("wallet.userdetails.lookups").tag("result", "hit").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("wallet.userdetails.lookups").tag("result", "miss").counter().count())
+                .isEqualTo(2);
+
+        // --- Verify ---
+        verify(employeeRepository, times(2)).findByUsername("employee");
+    }
+}
@@ -0,0 +1,95 @@
+package com.digitalwallet.walletapi.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+
+    private JwtUtils jwtUtils;
+
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "mySecretKey123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        jwtUtils.init();
+
+        CustomUserDetails user = CustomUserDetails.createCustomer("12345678901", "secret", List.of("CUSTOMER"), 1L);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    /**
+     * Scenario: The same token is presented on two requests.
+     *
+     * Expected outcome:
+     *  • The first request verifies the token and caches its claims.
+     *  • The second request is answered with the cached claims.
+     */
+    @Test
+    void parseJwtToken_ShouldReuseVerifiedClaims_ForRepeatedToken() {
+        // --- Arrange ---
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // --- Act ---
+        Claims first = jwtUtils.parseJwtToken(token);
+        Claims second = jwtUtils.parseJwtToken(token);
+
+        // --- Assert ---
+        assertThat(first.getSubject()).isEqualTo("12345678901");
+        assertThat(second).isSameAs(first);
+    }
+
+    /**
+     * Scenario: A token is presented with a tampered signature, and another one after it expired.
+     *
+     * Expected outcome:
+     *  • Neither token is accepted.
+     */
+    @Test
+    void parseJwtToken_ShouldRejectTamperedAndExpiredTokens() {
+        // --- Arrange ---
+        String token = jwtUtils.generateJwtToken(authentication);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", -1_000);
+        String expired = jwtUtils.generateJwtToken(authentication);
+
+        // --- Act & Assert ---
+        assertThat(jwtUtils.parseJwtToken(tampered)).isNull();
+        assertThat(jwtUtils.parseJwtToken(expired)).isNull();
+        assertThat(jwtUtils.validateJwtToken(token)).isTrue();
+    }
+
+    /**
+     * Scenario: A customer's token is presented on an API request.
+     *
+     * Expected outcome:
+     *  • The principal is built from the token's claims, with the customer's role and ID.
+     *  • The token carries an ID, so it can be revoked.
+     */
+    @Test
+    void getUserDetailsFromClaims_ShouldRestoreRolesAndCustomerId() {
+        // --- Arrange ---
+        Claims claims = jwtUtils.parseJwtToken(jwtUtils.generateJwtToken(authentication));
+
+        // --- Act ---
+        CustomUserDetails user = jwtUtils.getUserDetailsFromClaims(claims);
+
+        // --- Assert ---
+        assertThat(user.getUsername()).isEqualTo("12345678901");
+        assertThat(user.getCustomerId()).isEqualTo(1L);
+        assertThat(user.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_CUSTOMER");
+        assertThat(claims.getId()).isNotBlank();
+    }
+}
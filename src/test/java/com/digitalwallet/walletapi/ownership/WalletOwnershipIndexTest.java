@@ -0,0 +1,89 @@
+package com.digitalwallet.walletapi.ownership;
+
+import com.digitalwallet.walletapi.repository.WalletRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletOwnershipIndexTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @InjectMocks
+    private WalletOwnershipIndex index;
+
+    /**
+     * Scenario: The index is loaded with more wallets than fit in its initial table.
+     *
+     * Expected outcome:
+     *  • Every loaded wallet is answered from memory, including after the table has grown.
+     *  • A customer is not reported as the owner of another customer's wallet.
+     */
+    @Test
+    @DisplayName("isOwner should answer loaded wallets without querying")
+    void isOwner_ShouldAnswerLoadedWalletsFromMemory() {
+        // --- Arrange ---
+        List<WalletRepository.WalletOwner> owners = new ArrayList<>();
+        for (long walletId = 1; walletId <= 5000; walletId++) {
+            owners.add(owner(walletId, walletId % 7));
+        }
+        when(walletRepository.findOwnersAfter(eq(0L), any(Pageable.class))).thenReturn(owners);
+
+        // --- Act ---
+        index.load();
+
+        // --- Assert ---
+        assertThat(index.size()).isEqualTo(5000);
+        assertThat(index.isOwner(4242L, 4242L % 7)).isTrue();
+        assertThat(index.isOwner(4242L, 4243L % 7)).isFalse();
+        verify(walletRepository, never()).findCustomerIdById(anyLong());
+    }
+
+    /**
+     * Scenario: A wallet created on another instance is checked before this index knows it.
+     *
+     * Expected outcome:
+     *  • The miss is confirmed with one owner lookup and the owner is remembered.
+     *  • An ID that matches no wallet is rejected.
+     */
+    @Test
+    @DisplayName("isOwner should look up and remember wallets missing from the index")
+    void isOwner_ShouldLookUpMissingWalletOnce() {
+        // --- Arrange ---
+        when(walletRepository.findCustomerIdById(10L)).thenReturn(Optional.of(1L));
+        when(walletRepository.findCustomerIdById(11L)).thenReturn(Optional.empty());
+
+        // --- Act & Assert ---
+        assertThat(index.isOwner(10L, 1L)).isTrue();
+        assertThat(index.isOwner(10L, 1L)).isTrue();
+        assertThat(index.isOwner(11L, 1L)).isFalse();
+        verify(walletRepository, times(1)).findCustomerIdById(10L);
+    }
+
+    private static WalletRepository.WalletOwner owner(long walletId, long customerId) {
+        return new WalletRepository.WalletOwner() {
+            @Override
+            public Long getWalletId() {
+                return walletId;
+            }
+
+            @Override
+            public Long getCustomerId() {
+                return customerId;
+            }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package com.digitalwallet.walletapi.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every query method declared on the repositories, captures the SQL Hibernate
+ * sends for it and checks H2's EXPLAIN output: each table must be reached through
+ * an index condition, never a table scan or an unrestricted index scan.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.digitalwallet.walletapi.repository.RepositoryQueryPlanTest$StatementRecorder")
+class RepositoryQueryPlanTest {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            CustomerRepository.class,
+            EmployeeRepository.class,
+            IdempotencyRecordRepository.class,
+            PostingRepository.class,
+            RevokedTokenRepository.class,
+            TransactionRepository.class,
+            WalletBalanceStripeRepository.class,
+            WalletRepository.class);
+
+    /**
+     * Aggregates over a whole table, run only to seed and reconcile in-memory counts
+     */
+    private static final Set<String> FULL_SCANS = Set.of(
+            "TransactionRepository.countByStatus");
+
+    /**
+     * Table access comments in H2 plans, e.g. "PUBLIC.IDX_WALLETS_CUSTOMER_CURRENCY: CUSTOMER_ID = ?1"
+     */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.([A-Za-z0-9_.]+)(:[^*]*)?\\s*\\*/");
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestFactory
+    Stream<DynamicTest> everyRepositoryQueryIsServedByAnIndex() {
+        return REPOSITORIES.stream()
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                        .filter(method -> !FULL_SCANS.contains(repository.getSimpleName() + "." + method.getName()))
+                        .map(method -> DynamicTest.dynamicTest(
+                                repository.getSimpleName() + "." + method.getName(),
+                                () -> assertIndexed(context.getBean(repository), method))));
+    }
+
+    private void assertIndexed(Object repository, Method method) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            StatementRecorder.STATEMENTS.clear();
+            invoke(repository, method);
+
+            List<String> statements = StatementRecorder.STATEMENTS.stream()
+                    .filter(sql -> !sql.contains("next value for"))
+                    .toList();
+            assertThat(statements).as("SQL issued by %s", method.getName()).isNotEmpty();
+            for (String sql : statements) {
+                String plan = explain(sql);
+                Matcher access = TABLE_ACCESS.matcher(plan);
+                int tables = 0;
+                while (access.find()) {
+                    tables++;
+                    assertThat(access.group(1)).as("Plan of %s:%n%s", method.getName(), plan).doesNotEndWith("tableScan");
+                    assertThat(access.group(2)).as("Plan of %s:%n%s", method.getName(), plan).isNotNull();
+                }
+                assertThat(tables).as("Plan of %s:%n%s", method.getName(), plan).isPositive();
+            }
+        });
+    }
+
+    private void invoke(Object repository, Method method) {
+        Object[] arguments = Arrays.stream(method.getParameterTypes()).map(this::sampleArgument).toArray();
+        try {
+            Object result = method.invoke(repository, arguments);
+            if (result instanceof Stream<?> stream) {
+                try (stream) {
+                    stream.forEach(row -> { });
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot run " + method, e);
+        }
+    }
+
+    private Object sampleArgument(Class<?> type) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 0;
+        }
+        if (type == String.class) {
+            return "sample";
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1L, 2L);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 10);
+        }
+        throw new IllegalArgumentException("No sample value for " + type);
+    }
+
+    /**
+     * EXPLAIN a captured statement on the test transaction's connection. H2 plans a
+     * prepared statement before its parameters are known, so they are left null.
+     */
+    private String explain(String sql) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot explain " + sql, e);
+        }
+    }
+
+    /**
+     * Records every SQL statement Hibernate prepares
+     */
+    public static class StatementRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
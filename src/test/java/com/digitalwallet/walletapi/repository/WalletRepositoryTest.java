@@ -0,0 +1,209 @@
+package com.digitalwallet.walletapi.repository;
+
+import com.digitalwallet.walletapi.entity.Customer;
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the single-statement balance updates of the ATOMIC concurrency mode against
+ * the migrated schema. Every call commits on its own, as it does in production, so
+ * that concurrent callers really contend for the row.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WalletRepositoryTest {
+
+    private static final AtomicLong TCKN = new AtomicLong(10_000_000_000L);
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Scenario: 25.50 is credited to a wallet holding 100.00, with the usable balance left alone.
+     *
+     * Expected outcome:
+     *  • One row is updated and the minor-unit delta is converted like the column: the row holds 125.50.
+     *  • The wallet version moves by one.
+     */
+    @Test
+    @DisplayName("credit should add minor units to the balance and bump the version")
+    void credit_ShouldAddMinorUnitsAndBumpVersion() {
+        // --- Arrange ---
+        Wallet wallet = wallet(10_000L, true);
+
+        // --- Act ---
+        int updated = transactionTemplate.execute(status -> walletRepository.credit(wallet.getId(), 2_550L, 0L));
+
+        // --- Assert ---
+        assertThat(updated).isEqualTo(1);
+        assertThat(column("balance", wallet)).isEqualByComparingTo("125.50");
+        assertThat(column("usable_balance", wallet)).isEqualByComparingTo("100.00");
+
+        Wallet reloaded = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertThat(reloaded.getBalance()).isEqualTo(12_550L);
+        assertThat(reloaded.getUsableBalance()).isEqualTo(10_000L);
+        assertThat(reloaded.getVersion()).isEqualTo(wallet.getVersion() + 1);
+    }
+
+    /**
+     * Scenario: 40.00 is withdrawn from a wallet holding 100.00.
+     * Expected: one row is updated, both balances drop to 60.00 and the version moves by one.
+     */
+    @Test
+    @DisplayName("debitForWithdraw should take the amount when the usable balance covers it")
+    void debitForWithdraw_ShouldDebitWhenBalanceCoversAmount() {
+        // --- Arrange ---
+        Wallet wallet = wallet(10_000L, true);
+
+        // --- Act ---
+        int updated = transactionTemplate.execute(status ->
+                walletRepository.debitForWithdraw(wallet.getId(), 4_000L, 4_000L));
+
+        // --- Assert ---
+        assertThat(updated).isEqualTo(1);
+        assertThat(column("balance", wallet)).isEqualByComparingTo("60.00");
+        assertThat(column("usable_balance", wallet)).isEqualByComparingTo("60.00");
+        assertThat(walletRepository.findById(wallet.getId()).orElseThrow().getVersion())
+                .isEqualTo(wallet.getVersion() + 1);
+    }
+
+    /**
+     * Scenario: A debit exceeds the usable balance by one minor unit, targets a wallet
+     * inactive for the operation, or targets a wallet that does not exist.
+     * Expected: no row is updated and neither balances nor version change.
+     */
+    @Test
+    @DisplayName("debits should update nothing when the guard in the WHERE clause fails")
+    void debit_ShouldUpdateNothingWhenGuardFails() {
+        // --- Arrange ---
+        Wallet wallet = wallet(10_000L, true);
+        Wallet inactive = wallet(10_000L, false);
+
+        // --- Act ---
+        int overdraft = transactionTemplate.execute(status ->
+                walletRepository.debitForWithdraw(wallet.getId(), 10_001L, 10_001L));
+        int notActive = transactionTemplate.execute(status ->
+                walletRepository.debitForShopping(inactive.getId(), 1_000L, 1_000L));
+        int missing = transactionTemplate.execute(status ->
+                walletRepository.debitForWithdraw(Long.MAX_VALUE, 1_000L, 1_000L));
+
+        // --- Assert ---
+        assertThat(overdraft).isZero();
+        assertThat(notActive).isZero();
+        assertThat(missing).isZero();
+        for (Wallet unchanged : List.of(wallet, inactive)) {
+            Wallet reloaded = walletRepository.findById(unchanged.getId()).orElseThrow();
+            assertThat(reloaded.getBalance()).isEqualTo(10_000L);
+            assertThat(reloaded.getUsableBalance()).isEqualTo(10_000L);
+            assertThat(reloaded.getVersion()).isEqualTo(unchanged.getVersion());
+        }
+    }
+
+    /**
+     * Scenario: Twenty callers each withdraw 10.00 at once from a wallet holding 100.00.
+     *
+     * Expected outcome:
+     *  • Exactly ten debits are accepted and the usable balance ends at zero, never below.
+     *  • The version moves once per accepted debit.
+     */
+    @Test
+    @DisplayName("debitForWithdraw should never overdraw under concurrent decrements")
+    void debitForWithdraw_ShouldNotOverdrawUnderConcurrency() throws Exception {
+        // --- Arrange ---
+        Wallet wallet = wallet(10_000L, true);
+        int callers = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // --- Act ---
+        try {
+            Callable<Integer> debit = () -> {
+                start.await();
+                return transactionTemplate.execute(status ->
+                        walletRepository.debitForWithdraw(wallet.getId(), 1_000L, 1_000L));
+            };
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(debit));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Integer> result : results) {
+                accepted += result.get(30, TimeUnit.SECONDS);
+            }
+
+            // --- Assert ---
+            assertThat(accepted).isEqualTo(10);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Wallet reloaded = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertThat(reloaded.getUsableBalance()).isZero();
+        assertThat(reloaded.getBalance()).isZero();
+        assertThat(reloaded.getVersion()).isEqualTo(wallet.getVersion() + 10);
+    }
+
+    private Wallet wallet(long balance, boolean active) {
+        Customer customer = customerRepository.save(Customer.builder()
+                .name("Test")
+                .surname("Customer")
+                .tckn(String.valueOf(TCKN.incrementAndGet()))
+                .password("secret")
+                .build());
+        return walletRepository.save(Wallet.builder()
+                .customer(customer)
+                .walletName("Main")
+                .currency(Currency.TRY)
+                .activeForShopping(active)
+                .activeForWithdraw(active)
+                .balance(balance)
+                .usableBalance(balance)
+                .build());
+    }
+
+    private BigDecimal column(String name, Wallet wallet) {
+        return jdbcTemplate.queryForObject("SELECT " + name + " FROM wallets WHERE id = ?",
+                BigDecimal.class, wallet.getId());
+    }
+}
@@ -1,8 +1,7 @@
 package com.digitalwallet.walletapi.service.impl;
 
 import com.digitalwallet.walletapi.jwt.CustomUserDetails;
-import com.digitalwallet.walletapi.entity.Wallet;
-import com.digitalwallet.walletapi.repository.WalletRepository;
+import com.digitalwallet.walletapi.ownership.WalletOwnershipIndex;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,7 +15,6 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.List;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -25,7 +23,7 @@ import static org.mockito.Mockito.*;
 class AuthorizationServiceImplTest {
 
     @Mock
-    private WalletRepository walletRepository;
+    private WalletOwnershipIndex walletOwnershipIndex;
 
     @Mock
     private Authentication authentication;
@@ -127,7 +125,7 @@ class AuthorizationServiceImplTest {
      * Expected outcome:
      *  • The isWalletOwner method returns {@code true} because employees
      *    have access to all wallets regardless of ownership.
-     *  • No database queries are performed to check wallet ownership.
+     *  • The ownership index is not consulted.
      */
     @Test
     @DisplayName("isWalletOwner should return true for an EMPLOYEE for any wallet ID")
@@ -143,7 +141,7 @@ class AuthorizationServiceImplTest {
         assertThat(result).isTrue();
         
         // --- Verify ---
-        verify(walletRepository, never()).findByIdAndCustomerId(anyLong(), anyLong());
+        verify(walletOwnershipIndex, never()).isOwner(anyLong(), anyLong());
     }
 
     /**
@@ -152,7 +150,7 @@ class AuthorizationServiceImplTest {
      * Expected outcome:
      *  • The isWalletOwner method returns {@code true} because the wallet
      *    belongs to the authenticated customer.
-     *  • The repository query finds a matching wallet for the customer ID and wallet ID.
+     *  • The ownership index maps the wallet ID to the customer ID.
      */
     @Test
     @DisplayName("isWalletOwner should return true for a CUSTOMER who owns the wallet")
@@ -162,7 +160,7 @@ class AuthorizationServiceImplTest {
         Long walletId = 10L;
         CustomUserDetails customerDetails = CustomUserDetails.createCustomer("user", "pass", List.of("CUSTOMER"), customerId);
         when(authentication.getPrincipal()).thenReturn(customerDetails);
-        when(walletRepository.findByIdAndCustomerId(walletId, customerId)).thenReturn(Optional.of(new Wallet()));
+        when(walletOwnershipIndex.isOwner(walletId, customerId)).thenReturn(true);
         
         // --- Act ---
         boolean result = authService.isWalletOwner(walletId);
@@ -175,9 +173,8 @@ class AuthorizationServiceImplTest {
      * Scenario: A CUSTOMER user tries to check ownership for a wallet they don't own.
      *
      * Expected outcome:
-     *  • The isWalletOwner method returns {@code false} because no wallet
-     *    is found for the combination of wallet ID and customer ID.
-     *  • The repository query returns an empty Optional indicating no ownership.
+     *  • The isWalletOwner method returns {@code false} because the ownership
+     *    index does not map the wallet ID to the customer ID.
      */
     @Test
     @DisplayName("isWalletOwner should return false for a CUSTOMER who does not own the wallet")
@@ -187,7 +184,7 @@ class AuthorizationServiceImplTest {
         Long walletId = 10L;
         CustomUserDetails customerDetails = CustomUserDetails.createCustomer("user", "pass", List.of("CUSTOMER"), customerId);
         when(authentication.getPrincipal()).thenReturn(customerDetails);
-        when(walletRepository.findByIdAndCustomerId(walletId, customerId)).thenReturn(Optional.empty());
+        when(walletOwnershipIndex.isOwner(walletId, customerId)).thenReturn(false);
         
         // --- Act ---
         boolean result = authService.isWalletOwner(walletId);
@@ -216,4 +213,32 @@ class AuthorizationServiceImplTest {
         // --- Assert ---
         assertThat(result).isFalse();
     }
-}
\ No newline at end of file
+
+    // --- isWalletOwnerOfAll Tests ---
+
+    /**
+     * Scenario: A CUSTOMER user submits a batch touching two own wallets and one foreign wallet.
+     *
+     * Expected outcome:
+     *  • The isWalletOwnerOfAll method returns {@code false} because only two of
+     *    the three distinct wallets belong to the customer.
+     *  • Duplicate wallet IDs are checked once.
+     */
+    @Test
+    @DisplayName("isWalletOwnerOfAll should return false when a CUSTOMER does not own every wallet")
+    void isWalletOwnerOfAll_ShouldReturnFalse_WhenOneWalletBelongsToSomeoneElse() {
+        // --- Arrange ---
+        Long customerId = 1L;
+        CustomUserDetails customerDetails = CustomUserDetails.createCustomer("user", "pass", List.of("CUSTOMER"), customerId);
+        when(authentication.getPrincipal()).thenReturn(customerDetails);
+        when(walletOwnershipIndex.isOwner(anyLong(), eq(customerId)))
+                .thenAnswer(invocation -> !invocation.getArgument(0).equals(12L));
+
+        // --- Act ---
+        boolean result = authService.isWalletOwnerOfAll(List.of(10L, 11L, 11L, 12L));
+
+        // --- Assert ---
+        assertThat(result).isFalse();
+        verify(walletOwnershipIndex, atMost(1)).isOwner(11L, customerId);
+    }
+}
@@ -0,0 +1,201 @@
+package com.digitalwallet.walletapi.service.impl;
+
+import com.digitalwallet.walletapi.dto.request.DepositRequest;
+import com.digitalwallet.walletapi.entity.IdempotencyRecord;
+import com.digitalwallet.walletapi.enums.IdempotencyStatus;
+import com.digitalwallet.walletapi.exception.IdempotencyConflictException;
+import com.digitalwallet.walletapi.exception.InsufficientBalanceException;
+import com.digitalwallet.walletapi.repository.IdempotencyRecordRepository;
+import com.digitalwallet.walletapi.response.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    private DepositRequest request;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(recordRepository, transactionManager,
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        idempotencyService.init();
+
+        IdempotencyRecord claim = IdempotencyRecord.builder().id(1L).build();
+        when(recordRepository.saveAndFlush(any())).thenReturn(claim);
+        when(recordRepository.findById(1L)).thenReturn(Optional.of(claim));
+
+        request = new DepositRequest();
+        request.setWalletId(1L);
+        request.setAmount(new BigDecimal("100.00"));
+        request.setSource("PAY12345");
+    }
+
+    /**
+     * Scenario: The same deposit is sent twice with the same Idempotency-Key.
+     *
+     * Expected outcome:
+     *  • The deposit action runs only once.
+     *  • The retry is answered with the stored response, without touching the database.
+     */
+    @Test
+    void execute_ShouldReplayStoredResponse_ForRepeatedKey() {
+        // --- Arrange ---
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<ResponseEntity<ApiResponse<String>>> action = () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok(ApiResponse.success("Deposit processed successfully", "Deposit completed"));
+        };
+
+        // --- Act ---
+        idempotencyService.execute("key-1", "deposit", request, action);
+        ResponseEntity<ApiResponse<String>> replayed = idempotencyService.execute("key-1", "deposit", request, action);
+
+        // --- Assert ---
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(replayed.getBody().getMessage()).isEqualTo("Deposit processed successfully");
+        assertThat(replayed.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+
+        // --- Verify ---
+        verify(recordRepository, times(1)).saveAndFlush(any());
+    }
+
+    /**
+     * Scenario: A duplicate arrives while the original request is still running.
+     *
+     * Expected outcome:
+     *  • The duplicate waits for the original instead of running the action itself.
+     *  • Both callers get the same response.
+     */
+    @Test
+    void execute_ShouldWaitForInFlightOriginal_ForConcurrentDuplicate() throws Exception {
+        // --- Arrange ---
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<ResponseEntity<ApiResponse<String>>> action = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.ok(ApiResponse.success("Deposit processed successfully", "Deposit completed"));
+        };
+
+        // --- Act ---
+        CompletableFuture<ResponseEntity<ApiResponse<String>>> original = CompletableFuture.supplyAsync(
+                () -> idempotencyService.execute("key-2", "deposit", request, action));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ResponseEntity<ApiResponse<String>>> duplicate = CompletableFuture.supplyAsync(
+                () -> idempotencyService.execute("key-2", "deposit", request, action));
+        release.countDown();
+
+        // --- Assert ---
+        assertThat(original.get(5, TimeUnit.SECONDS).getBody().getData()).isEqualTo("Deposit completed");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getBody().getData()).isEqualTo("Deposit completed");
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    /**
+     * Scenario: The original request fails with a business error and is then retried.
+     *
+     * Expected outcome:
+     *  • The claim on the key is released, so the retry runs the action again.
+     *  • Reusing the key for a different request body is rejected.
+     */
+    @Test
+    void execute_ShouldReleaseClaim_WhenActionFails() {
+        // --- Arrange ---
+        Supplier<ResponseEntity<ApiResponse<String>>> failing = () -> {
+            throw new InsufficientBalanceException(new BigDecimal("100.00"), BigDecimal.ZERO);
+        };
+        Supplier<ResponseEntity<ApiResponse<String>>> succeeding =
+                () -> ResponseEntity.ok(ApiResponse.success("Deposit processed successfully", "Deposit completed"));
+
+        // --- Act & Assert ---
+        assertThatThrownBy(() -> idempotencyService.execute("key-3", "deposit", request, failing))
+                .isInstanceOf(InsufficientBalanceException.class);
+        verify(recordRepository).deleteById(1L);
+
+        assertThat(idempotencyService.execute("key-3", "deposit", request, succeeding).getBody().getData())
+                .isEqualTo("Deposit completed");
+
+        request.setAmount(new BigDecimal("999.00"));
+        assertThatThrownBy(() -> idempotencyService.execute("key-3", "deposit", request, succeeding))
+                .isInstanceOf(IdempotencyConflictException.class);
+    }
+
+    /**
+     * Scenario: The deposit commits, but storing its response fails once, and the deposit is then retried.
+     *
+     * Expected outcome:
+     *  • The caller gets the deposit's response rather than an error.
+     *  • The retry is replayed without running the deposit again.
+     *  • The background retry stores the response and marks the record completed, once.
+     */
+    @Test
+    void execute_ShouldKeepResponse_WhenStoringItFailsAfterActionCommitted() {
+        // --- Arrange ---
+        IdempotencyRecord claim = IdempotencyRecord.builder().id(1L).build();
+        when(recordRepository.findById(1L))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(Optional.of(claim));
+        AtomicInteger runs = new AtomicInteger();
+        Supplier<ResponseEntity<ApiResponse<String>>> action = () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok(ApiResponse.success("Deposit processed successfully", "Deposit completed"));
+        };
+
+        // --- Act ---
+        ResponseEntity<ApiResponse<String>> response = idempotencyService.execute("key-4", "deposit", request, action);
+        ResponseEntity<ApiResponse<String>> replayed = idempotencyService.execute("key-4", "deposit", request, action);
+        idempotencyService.retryCompletions();
+        idempotencyService.retryCompletions();
+
+        // --- Assert ---
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody().getData()).isEqualTo("Deposit completed");
+        assertThat(replayed.getBody().getData()).isEqualTo("Deposit completed");
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(claim.getStatus()).isEqualTo(IdempotencyStatus.COMPLETED);
+        assertThat(claim.getResponseStatus()).isEqualTo(200);
+        assertThat(claim.getResponseBody()).contains("Deposit completed");
+
+        // --- Verify ---
+        verify(recordRepository, times(2)).findById(1L);
+    }
+}
@@ -0,0 +1,62 @@
+package com.digitalwallet.walletapi.service.impl;
+
+import com.digitalwallet.walletapi.entity.RevokedToken;
+import com.digitalwallet.walletapi.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceImplTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationServiceImpl revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationServiceImpl(revokedTokenRepository);
+    }
+
+    /**
+     * Scenario: A user logs out on this instance, and another token is revoked on a different one.
+     *
+     * Expected outcome:
+     *  • The local revocation is stored and effective at once.
+     *  • The other revocation is effective after the next refresh.
+     *  • A refresh keeps the local revocation even when it was not read back.
+     */
+    @Test
+    void isRevoked_ShouldSeeLocalRevocationsAtOnceAndRemoteOnesAfterRefresh() {
+        // --- Arrange ---
+        when(revokedTokenRepository.findUnexpired(any())).thenReturn(List.of(
+                RevokedToken.builder().tokenId("remote").expiresAt(LocalDateTime.now().plusHours(1)).build()));
+
+        // --- Act ---
+        revocationService.revoke("local", new Date(System.currentTimeMillis() + 3_600_000));
+
+        // --- Assert ---
+        assertThat(revocationService.isRevoked("local")).isTrue();
+        assertThat(revocationService.isRevoked("remote")).isFalse();
+
+        revocationService.refresh();
+        assertThat(revocationService.isRevoked("remote")).isTrue();
+        assertThat(revocationService.isRevoked("local")).isTrue();
+        assertThat(revocationService.isRevoked(null)).isFalse();
+
+        // --- Verify ---
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+}
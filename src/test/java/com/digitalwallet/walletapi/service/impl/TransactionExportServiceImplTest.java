@@ -0,0 +1,126 @@
+package com.digitalwallet.walletapi.service.impl;
+
+import com.digitalwallet.walletapi.entity.Transaction;
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.ExportFormat;
+import com.digitalwallet.walletapi.enums.OppositePartyType;
+import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.mapper.TransactionMapper;
+import com.digitalwallet.walletapi.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceImplTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private TransactionExportServiceImpl exportService;
+
+    private Transaction deposit;
+    private Transaction payment;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new TransactionExportServiceImpl(transactionRepository,
+                Mappers.getMapper(TransactionMapper.class), entityManager,
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+
+        Wallet wallet = Wallet.builder().id(1L).build();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 15, 14, 30);
+
+        deposit = Transaction.builder()
+                .id(10L)
+                .wallet(wallet)
+                .type(TransactionType.DEPOSIT)
+                .amount(50_000L)
+                .oppositePartyType(OppositePartyType.IBAN)
+                .oppositeParty("TR123456789012345678901234")
+                .status(TransactionStatus.APPROVED)
+                .createdAt(createdAt)
+                .build();
+
+        payment = Transaction.builder()
+                .id(11L)
+                .wallet(wallet)
+                .type(TransactionType.WITHDRAW)
+                .amount(1_050L)
+                .oppositePartyType(OppositePartyType.PAYMENT)
+                .oppositeParty("=HYPERLINK(\"x\"),1")
+                .status(TransactionStatus.PENDING)
+                .createdAt(createdAt.plusMinutes(1))
+                .build();
+    }
+
+    /**
+     * Scenario: A wallet with two transactions is exported as CSV.
+     *
+     * Expected outcome:
+     *  • A header line is followed by one line per transaction, oldest first.
+     *  • Amounts are written as decimals; free text is quoted and cannot start a formula.
+     *  • Every written transaction is detached from the persistence context.
+     */
+    @Test
+    void exportTransactions_ShouldWriteCsvRowsAndDetachThem() throws Exception {
+        // --- Arrange ---
+        when(transactionRepository.streamByWalletId(1L)).thenReturn(Stream.of(deposit, payment));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // --- Act ---
+        long rows = exportService.exportTransactions(1L, ExportFormat.CSV, out);
+
+        // --- Assert ---
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "id,walletId,type,amount,oppositePartyType,oppositeParty,status,transferId,createdAt,updatedAt",
+                "10,1,DEPOSIT,500.00,IBAN,TR123456789012345678901234,APPROVED,,2025-01-15T14:30,",
+                "11,1,WITHDRAW,10.50,PAYMENT,\"'=HYPERLINK(\"\"x\"\"),1\",PENDING,,2025-01-15T14:31,");
+
+        // --- Verify ---
+        verify(entityManager).detach(deposit);
+        verify(entityManager).detach(payment);
+    }
+
+    /**
+     * Scenario: The same wallet is exported as NDJSON.
+     *
+     * Expected outcome:
+     *  • Every line is one complete JSON transaction, with no surrounding array or envelope.
+     */
+    @Test
+    void exportTransactions_ShouldWriteOneJsonObjectPerLine_ForNdjson() throws Exception {
+        // --- Arrange ---
+        when(transactionRepository.streamByWalletId(1L)).thenReturn(Stream.of(deposit, payment));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // --- Act ---
+        exportService.exportTransactions(1L, ExportFormat.NDJSON, out);
+
+        // --- Assert ---
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":10,\"walletId\":1,\"amount\":500.00,\"type\":\"DEPOSIT\"");
+        assertThat(lines[1]).contains("\"id\":11", "\"status\":\"PENDING\"");
+    }
+}
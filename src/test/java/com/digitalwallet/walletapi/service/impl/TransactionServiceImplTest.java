@@ -1,25 +1,48 @@
 package com.digitalwallet.walletapi.service.impl;
 
+import com.digitalwallet.walletapi.cache.WalletCache;
 import com.digitalwallet.walletapi.dto.request.ApproveTransactionRequest;
+import com.digitalwallet.walletapi.engine.BalanceEngine;
+import com.digitalwallet.walletapi.entity.Posting;
 import com.digitalwallet.walletapi.entity.Transaction;
 import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.LedgerAccount;
 import com.digitalwallet.walletapi.enums.TransactionStatus;
 import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.exception.BusinessException;
 import com.digitalwallet.walletapi.exception.TransactionNotFoundException;
+import com.digitalwallet.walletapi.ledger.WalletLedger;
+import com.digitalwallet.walletapi.pagination.KeysetCursor;
+import com.digitalwallet.walletapi.pagination.KeysetPage;
+import com.digitalwallet.walletapi.repository.CustomerRepository;
+import com.digitalwallet.walletapi.repository.PostingRepository;
 import com.digitalwallet.walletapi.repository.TransactionRepository;
 import com.digitalwallet.walletapi.repository.WalletRepository;
+import com.digitalwallet.walletapi.stats.WalletStatistics;
+import com.digitalwallet.walletapi.write.WalletStripes;
+import com.digitalwallet.walletapi.write.WalletWriteExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,26 +54,53 @@ public class TransactionServiceImplTest {
     @Mock
     private WalletRepository walletRepository;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WalletStripes walletStripes;
+
+    @Mock
+    private PostingRepository postingRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
     private TransactionServiceImpl transactionService;
 
+    private WalletLedger walletLedger;
+
+    private WalletStatistics walletStatistics;
+
     private Wallet testWallet;
     private Transaction pendingDeposit;
     private Transaction pendingWithdrawal;
 
     @BeforeEach
     void setUp() {
+        WalletWriteExecutor writeExecutor =
+                new WalletWriteExecutor(new TransactionTemplate(transactionManager), new SimpleMeterRegistry());
+        WalletCache walletCache = new WalletCache(new SimpleMeterRegistry());
+        walletCache.init();
+        BalanceEngine balanceEngine = new BalanceEngine(walletRepository, transactionRepository,
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), walletStripes, walletCache);
+        walletLedger = new WalletLedger(postingRepository, walletRepository,
+                new TransactionTemplate(transactionManager), walletCache, new SimpleMeterRegistry());
+        walletStatistics = new WalletStatistics(customerRepository, walletRepository, transactionRepository);
+        transactionService = new TransactionServiceImpl(transactionRepository, walletRepository, writeExecutor,
+                balanceEngine, walletLedger, walletStatistics, walletCache);
+
         testWallet = Wallet.builder()
                 .id(1L)
-                .balance(new BigDecimal("2000.00")) // for the 500 PENDING DEPOSIT
-                .usableBalance(new BigDecimal("1000.00")) // for the 500 PENDING WITHDRAW
+                .balance(200_000L) // 2000.00 in minor units, for the 500 PENDING DEPOSIT
+                .usableBalance(100_000L) // 1000.00 in minor units, for the 500 PENDING WITHDRAW
                 .build();
 
         pendingDeposit = Transaction.builder()
                 .id(10L)
                 .wallet(testWallet)
                 .type(TransactionType.DEPOSIT)
-                .amount(new BigDecimal("500.00"))
+                .amount(50_000L)
                 .status(TransactionStatus.PENDING)
                 .build();
 
@@ -58,7 +108,7 @@ public class TransactionServiceImplTest {
                 .id(11L)
                 .wallet(testWallet)
                 .type(TransactionType.WITHDRAW)
-                .amount(new BigDecimal("500.00"))
+                .amount(50_000L)
                 .status(TransactionStatus.PENDING)
                 .build();
     }
@@ -87,8 +137,8 @@ public class TransactionServiceImplTest {
         // --- Assert ---
         assertThat(pendingDeposit.getStatus()).isEqualTo(TransactionStatus.APPROVED);
 
-        assertThat(testWallet.getUsableBalance()).isEqualByComparingTo("1500.00"); // 1000 + 500
-        assertThat(testWallet.getBalance()).isEqualByComparingTo("2000.00");
+        assertThat(testWallet.getUsableBalance()).isEqualTo(150_000L); // 1000 + 500
+        assertThat(testWallet.getBalance()).isEqualTo(200_000L);
     }
 
     /**
@@ -114,8 +164,127 @@ public class TransactionServiceImplTest {
         // --- Assert ---
         assertThat(pendingWithdrawal.getStatus()).isEqualTo(TransactionStatus.APPROVED);
 
-        assertThat(testWallet.getBalance()).isEqualByComparingTo("1500.00"); // 2000 - 500
-        assertThat(testWallet.getUsableBalance()).isEqualByComparingTo("1000.00");
+        assertThat(testWallet.getBalance()).isEqualTo(150_000L); // 2000 - 500
+        assertThat(testWallet.getUsableBalance()).isEqualTo(100_000L);
+    }
+
+    /**
+     * Scenario: A pending transfer leg of 500.00 ₺ is denied.
+     *
+     * Expected outcome:
+     *  • Both legs of the transfer are set to {@code DENIED}.
+     *  • The source wallet gets its reserved usable balance back (1000 → 1500).
+     *  • The destination wallet loses the pending amount from its balance (2000 → 1500).
+     */
+    @Test
+    void approveTransaction_ShouldDecideBothLegs_ForDeniedTransfer() {
+        // --- Arrange ---
+        Wallet destination = Wallet.builder()
+                .id(2L)
+                .balance(200_000L)
+                .usableBalance(150_000L)
+                .build();
+        pendingWithdrawal.setTransferId("transfer-1");
+        Transaction depositLeg = Transaction.builder()
+                .id(12L)
+                .wallet(destination)
+                .type(TransactionType.DEPOSIT)
+                .amount(50_000L)
+                .status(TransactionStatus.PENDING)
+                .transferId("transfer-1")
+                .build();
+
+        ApproveTransactionRequest request = new ApproveTransactionRequest();
+        request.setTransactionId(11L);
+        request.setStatus(TransactionStatus.DENIED);
+
+        when(transactionRepository.findById(11L)).thenReturn(Optional.of(pendingWithdrawal));
+        when(transactionRepository.findByTransferId("transfer-1")).thenReturn(List.of(pendingWithdrawal, depositLeg));
+        when(walletRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(testWallet, destination));
+
+        // --- Act ---
+        transactionService.approveTransaction(request);
+
+        // --- Assert ---
+        assertThat(pendingWithdrawal.getStatus()).isEqualTo(TransactionStatus.DENIED);
+        assertThat(depositLeg.getStatus()).isEqualTo(TransactionStatus.DENIED);
+
+        assertThat(testWallet.getUsableBalance()).isEqualTo(150_000L); // 1000 + 500
+        assertThat(destination.getBalance()).isEqualTo(150_000L); // 2000 - 500
+    }
+
+    /**
+     * Scenario: Two transactions are pending when the statistics are seeded, and one is approved.
+     *
+     * Expected outcome:
+     *  • The seeded counts come from the per-status aggregate.
+     *  • The approval moves one transaction from {@code PENDING} to {@code APPROVED}
+     *    without querying the counts again.
+     */
+    @Test
+    void approveTransaction_ShouldMovePendingCountToApproved() {
+        // --- Arrange ---
+        TransactionRepository.StatusCount pending = mock(TransactionRepository.StatusCount.class);
+        when(pending.getStatus()).thenReturn(TransactionStatus.PENDING);
+        when(pending.getCount()).thenReturn(2L);
+        when(transactionRepository.countByStatus()).thenReturn(List.of(pending));
+        walletStatistics.reconcile();
+
+        ApproveTransactionRequest request = new ApproveTransactionRequest();
+        request.setTransactionId(10L);
+        request.setStatus(TransactionStatus.APPROVED);
+
+        when(transactionRepository.findById(10L)).thenReturn(Optional.of(pendingDeposit));
+
+        // --- Act ---
+        transactionService.approveTransaction(request);
+
+        // --- Assert ---
+        assertThat(walletStatistics.getTransactions(TransactionStatus.PENDING)).isEqualTo(1);
+        assertThat(walletStatistics.getTransactions(TransactionStatus.APPROVED)).isEqualTo(1);
+        assertThat(walletStatistics.getTransactions()).isEqualTo(2);
+
+        // --- Verify ---
+        verify(transactionRepository).countByStatus();
+    }
+
+    /**
+     * Scenario: Ledger mode, a pending deposit of 500.00 ₺ is approved.
+     *
+     * Expected outcome:
+     *  • The decision is stored with the conditional update.
+     *  • A compensating entry moves the amount from the held to the available account.
+     *  • The wallet row is neither locked nor changed.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void approveTransaction_ShouldAppendCompensatingPostings_WhenLedgerIsEnabled() {
+        // --- Arrange ---
+        ReflectionTestUtils.setField(walletLedger, "enabled", true);
+
+        ApproveTransactionRequest request = new ApproveTransactionRequest();
+        request.setTransactionId(10L);
+        request.setStatus(TransactionStatus.APPROVED);
+
+        when(transactionRepository.findById(10L)).thenReturn(Optional.of(pendingDeposit));
+        when(transactionRepository.decidePending(10L, TransactionStatus.APPROVED)).thenReturn(1);
+
+        // --- Act ---
+        transactionService.approveTransaction(request);
+
+        // --- Assert ---
+        ArgumentCaptor<List<Posting>> postingsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(postingRepository).saveAll(postingsCaptor.capture());
+        List<Posting> postings = postingsCaptor.getValue();
+        assertThat(postings).extracting(Posting::getAccount)
+                .containsExactly(LedgerAccount.WALLET_HELD, LedgerAccount.WALLET_AVAILABLE);
+        assertThat(postings).extracting(Posting::getAmount).containsExactly(-50_000L, 50_000L);
+
+        assertThat(testWallet.getUsableBalance()).isEqualTo(100_000L);
+        assertThat(testWallet.getBalance()).isEqualTo(200_000L);
+
+        // --- Verify ---
+        verify(walletRepository, never()).findAllByIdForUpdate(any());
     }
 
     /**
@@ -139,6 +308,57 @@ public class TransactionServiceImplTest {
                 .hasMessage("Invalid status. Only APPROVED or DENIED allowed.");
     }
 
+    /**
+     * Scenario: A wallet has three transactions and the first page of two is requested,
+     *           followed by the page its cursor points to.
+     *
+     * Expected outcome:
+     *  • One row more than the page size is read, and only the page size is returned.
+     *  • The cursor encodes the (createdAt, id) of the last returned row.
+     *  • The next page is read after that position and, being the last, has no cursor.
+     */
+    @Test
+    void listTransactions_ShouldContinueFromCursor_WhenMoreRowsFollow() {
+        // --- Arrange ---
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        pendingDeposit.setCreatedAt(now);
+        pendingWithdrawal.setCreatedAt(now.minusMinutes(1));
+        Transaction oldest = Transaction.builder().id(9L).wallet(testWallet).createdAt(now.minusMinutes(2)).build();
+
+        when(transactionRepository.findFirstPage(1L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(pendingDeposit, pendingWithdrawal, oldest));
+        when(transactionRepository.findPageAfter(1L, now.minusMinutes(1), 11L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(oldest));
+
+        // --- Act ---
+        KeysetPage<Transaction> first = transactionService.listTransactions(1L, null, 2);
+        KeysetPage<Transaction> second = transactionService.listTransactions(1L, first.nextCursor(), 2);
+
+        // --- Assert ---
+        assertThat(first.items()).containsExactly(pendingDeposit, pendingWithdrawal);
+        assertThat(KeysetCursor.decode(first.nextCursor()))
+                .isEqualTo(new KeysetCursor(now.minusMinutes(1), 11L));
+        assertThat(second.items()).containsExactly(oldest);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    /**
+     * Scenario: A page larger than the configured maximum, or a tampered cursor, is requested.
+     *
+     * Expected outcome:
+     *  • {@link BusinessException} is thrown with INVALID_PAGE_SIZE or INVALID_CURSOR.
+     */
+    @Test
+    void listTransactions_ShouldRejectInvalidPageSizeAndCursor() {
+        // --- Act & Assert ---
+        assertThatThrownBy(() -> transactionService.listTransactions(1L, null, 10_000))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INVALID_PAGE_SIZE");
+        assertThatThrownBy(() -> transactionService.listTransactions(1L, "not-a-cursor", 10))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("INVALID_CURSOR");
+    }
+
     /**
      * Scenario: A transaction lookup is requested for an ID that does not exist.
      *
@@ -1,32 +1,63 @@
 package com.digitalwallet.walletapi.service.impl;
 
+import com.digitalwallet.walletapi.cache.WalletCache;
+import com.digitalwallet.walletapi.dto.request.ApproveTransactionRequest;
+import com.digitalwallet.walletapi.dto.request.BatchOperationRequest;
 import com.digitalwallet.walletapi.dto.request.DepositRequest;
+import com.digitalwallet.walletapi.dto.request.TransferRequest;
 import com.digitalwallet.walletapi.dto.request.WithdrawRequest;
+import com.digitalwallet.walletapi.dto.response.BatchOperationResponse;
 import com.digitalwallet.walletapi.entity.Customer;
+import com.digitalwallet.walletapi.engine.BalanceEngine;
+import com.digitalwallet.walletapi.entity.Posting;
 import com.digitalwallet.walletapi.entity.Transaction;
 import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.enums.BatchMode;
+import com.digitalwallet.walletapi.enums.Currency;
+import com.digitalwallet.walletapi.enums.LedgerAccount;
 import com.digitalwallet.walletapi.enums.TransactionStatus;
+import com.digitalwallet.walletapi.enums.TransactionType;
+import com.digitalwallet.walletapi.enums.WalletConcurrencyMode;
 import com.digitalwallet.walletapi.exception.InsufficientBalanceException;
 import com.digitalwallet.walletapi.exception.WalletNotActiveException;
+import com.digitalwallet.walletapi.exception.WalletNotFoundException;
+import com.digitalwallet.walletapi.ledger.WalletLedger;
+import com.digitalwallet.walletapi.repository.CustomerRepository;
+import com.digitalwallet.walletapi.repository.PostingRepository;
 import com.digitalwallet.walletapi.repository.TransactionRepository;
 import com.digitalwallet.walletapi.repository.WalletRepository;
+import com.digitalwallet.walletapi.ownership.WalletOwnershipIndex;
+import com.digitalwallet.walletapi.stats.WalletStatistics;
+import com.digitalwallet.walletapi.write.WalletStripes;
+import com.digitalwallet.walletapi.write.WalletWriteExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor; 
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,32 +66,66 @@ public class WalletServiceImplTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private CustomerRepository customerRepository;
+
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WalletStripes walletStripes;
+
+    @Mock
+    private PostingRepository postingRepository;
+
     @Captor
     private ArgumentCaptor<Transaction> transactionCaptor;
 
-    @InjectMocks
     private WalletServiceImpl walletService;
 
+    private WalletLedger walletLedger;
+
+    private WalletStatistics walletStatistics;
+
+    private TransactionServiceImpl transactionService;
+
     private Wallet testWallet;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        WalletWriteExecutor writeExecutor =
+                new WalletWriteExecutor(new TransactionTemplate(transactionManager), meterRegistry);
+        WalletCache walletCache = new WalletCache(meterRegistry);
+        walletCache.init();
+        BalanceEngine balanceEngine = new BalanceEngine(walletRepository, transactionRepository,
+                new TransactionTemplate(transactionManager), meterRegistry, walletStripes, walletCache);
+        walletLedger = new WalletLedger(postingRepository, walletRepository,
+                new TransactionTemplate(transactionManager), walletCache, meterRegistry);
+        walletStatistics = new WalletStatistics(customerRepository, walletRepository, transactionRepository);
+        walletService = new WalletServiceImpl(walletRepository, customerRepository, transactionRepository,
+                meterRegistry, writeExecutor, balanceEngine, walletStripes, walletLedger,
+                walletStatistics, new WalletOwnershipIndex(walletRepository), walletCache, transactionManager);
+        transactionService = new TransactionServiceImpl(transactionRepository, walletRepository, writeExecutor,
+                balanceEngine, walletLedger, walletStatistics, walletCache);
 
         Customer customer = Customer.builder().id(1L).build();
 
         testWallet = Wallet.builder()
                 .id(1L)
                 .customer(customer)
-                .balance(new BigDecimal("100.00"))
-                .usableBalance(new BigDecimal("100.00"))
+                .balance(10_000L) // 100.00 in minor units
+                .usableBalance(10_000L)
                 .activeForShopping(true)
                 .activeForWithdraw(true)
                 .build();
         
-        ReflectionTestUtils.setField(walletService, "pendingThreshold", new BigDecimal("1000"));
+        ReflectionTestUtils.invokeSetterMethod(walletService, "pendingThreshold", new BigDecimal("1000"));
     }
 
     /**
@@ -111,10 +176,10 @@ public class WalletServiceImplTest {
         
         Transaction savedTransaction = transactionCaptor.getValue();
         assertThat(savedTransaction.getStatus()).isEqualTo(TransactionStatus.APPROVED);
-        assertThat(savedTransaction.getAmount()).isEqualByComparingTo("50.00");
+        assertThat(savedTransaction.getAmount()).isEqualTo(5_000L);
         
-        assertThat(testWallet.getBalance()).isEqualByComparingTo("50.00");
-        assertThat(testWallet.getUsableBalance()).isEqualByComparingTo("50.00");
+        assertThat(testWallet.getBalance()).isEqualTo(5_000L);
+        assertThat(testWallet.getUsableBalance()).isEqualTo(5_000L);
     }
 
     /**
@@ -126,8 +191,8 @@ public class WalletServiceImplTest {
     @Test
     void withdraw_ShouldSucceedWithPendingStatus_WhenAmountIsAboveThreshold() {
         // --- Arrange ---
-        testWallet.setBalance(new BigDecimal("2000.00"));
-        testWallet.setUsableBalance(new BigDecimal("2000.00"));
+        testWallet.setBalance(200_000L);
+        testWallet.setUsableBalance(200_000L);
         
         WithdrawRequest request = new WithdrawRequest();
         request.setWalletId(1L);
@@ -144,10 +209,10 @@ public class WalletServiceImplTest {
         
         Transaction savedTransaction = transactionCaptor.getValue();
         assertThat(savedTransaction.getStatus()).isEqualTo(TransactionStatus.PENDING);
-        assertThat(savedTransaction.getAmount()).isEqualByComparingTo("1500.00");
+        assertThat(savedTransaction.getAmount()).isEqualTo(150_000L);
         
-        assertThat(testWallet.getBalance()).isEqualByComparingTo("2000.00");
-        assertThat(testWallet.getUsableBalance()).isEqualByComparingTo("500.00");
+        assertThat(testWallet.getBalance()).isEqualTo(200_000L);
+        assertThat(testWallet.getUsableBalance()).isEqualTo(50_000L);
     }
 
     /**
@@ -226,10 +291,10 @@ public class WalletServiceImplTest {
         
         Transaction savedTransaction = transactionCaptor.getValue();
         assertThat(savedTransaction.getStatus()).isEqualTo(TransactionStatus.APPROVED);
-        assertThat(savedTransaction.getAmount()).isEqualByComparingTo("500.00");
+        assertThat(savedTransaction.getAmount()).isEqualTo(50_000L);
 
-        assertThat(testWallet.getBalance()).isEqualByComparingTo("600.00"); // 100 + 500
-        assertThat(testWallet.getUsableBalance()).isEqualByComparingTo("600.00"); // 100 + 500
+        assertThat(testWallet.getBalance()).isEqualTo(60_000L); // 100 + 500
+        assertThat(testWallet.getUsableBalance()).isEqualTo(60_000L); // 100 + 500
     }
 
     /**
@@ -256,10 +321,512 @@ public class WalletServiceImplTest {
         
         Transaction savedTransaction = transactionCaptor.getValue();
         assertThat(savedTransaction.getStatus()).isEqualTo(TransactionStatus.PENDING);
-        assertThat(savedTransaction.getAmount()).isEqualByComparingTo("2000.00");
+        assertThat(savedTransaction.getAmount()).isEqualTo(200_000L);
         
-        assertThat(testWallet.getBalance()).isEqualByComparingTo("2100.00"); // 100 + 2000
-        assertThat(testWallet.getUsableBalance()).isEqualByComparingTo("100.00"); // The available balance should not change.
+        assertThat(testWallet.getBalance()).isEqualTo(210_000L); // 100 + 2000
+        assertThat(testWallet.getUsableBalance()).isEqualTo(10_000L); // The available balance should not change.
+    }
+
+    /**
+     * Scenario: Deposit (500.00) to a striped wallet.
+     * Expected: deposit(...) *succeeds*,
+     *           credits one stripe instead of locking the wallet row,
+     *           saves an APPROVED {@link Transaction}.
+     */
+    @Test
+    void deposit_ShouldCreditStripeWithoutLockingWallet_WhenWalletIsStriped() {
+        // --- Arrange ---
+        DepositRequest request = new DepositRequest();
+        request.setWalletId(1L);
+        request.setAmount(new BigDecimal("500.00"));
+        request.setSource("PAY12345");
+
+        when(walletStripes.isStriped(1L)).thenReturn(true);
+        when(walletStripes.credit(1L, 50_000L, 50_000L)).thenReturn(true);
+
+        // --- Act ---
+        walletService.deposit(request);
+
+        // --- Assert ---
+        verify(transactionRepository).saveAndFlush(transactionCaptor.capture());
+        assertThat(transactionCaptor.getValue().getStatus()).isEqualTo(TransactionStatus.APPROVED);
+
+        // --- Verify ---
+        verify(walletRepository, never()).findByIdForUpdate(anyLong());
+        verify(walletRepository, never()).credit(anyLong(), anyLong(), anyLong());
+    }
+
+    /**
+     * Scenario: Withdraw (50.00) from a striped wallet whose row balance alone is too low.
+     * Expected: the stripes are consolidated into the wallet before the balance check,
+     *           so withdraw(...) *succeeds*.
+     */
+    @Test
+    void withdraw_ShouldConsolidateStripes_WhenWalletIsStriped() {
+        // --- Arrange ---
+        testWallet.setStripeCount(4);
+        testWallet.setBalance(0L);
+        testWallet.setUsableBalance(0L);
+
+        WithdrawRequest request = new WithdrawRequest();
+        request.setWalletId(1L);
+        request.setAmount(new BigDecimal("50.00"));
+        request.setDestination("PAY12345");
+
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testWallet));
+        doAnswer(invocation -> {
+            testWallet.setBalance(10_000L);
+            testWallet.setUsableBalance(10_000L);
+            return null;
+        }).when(walletStripes).consolidate(testWallet);
+
+        // --- Act ---
+        walletService.withdraw(request);
+
+        // --- Assert ---
+        assertThat(testWallet.getBalance()).isEqualTo(5_000L);
+        assertThat(testWallet.getUsableBalance()).isEqualTo(5_000L);
+    }
+
+    /**
+     * Scenario: BEST_EFFORT batch with a valid deposit and a withdraw larger than the usable balance.
+     * Expected: processBatch(...) applies the deposit, reports the withdraw as failed,
+     *           and inserts only the deposit transaction.
+     */
+    @Test
+    void processBatch_ShouldSkipFailingItems_InBestEffortMode() {
+        // --- Arrange ---
+        BatchOperationRequest request = batchRequest(BatchMode.BEST_EFFORT);
+        when(walletRepository.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(testWallet));
+
+        // --- Act ---
+        BatchOperationResponse response = walletService.processBatch(request);
+
+        // --- Assert ---
+        assertThat(response.getApplied()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults().get(1).getError()).isEqualTo("INSUFFICIENT_BALANCE");
+        assertThat(testWallet.getBalance()).isEqualTo(15_000L); // 100 + 50
+
+        // --- Verify ---
+        verify(transactionRepository).saveAll(argThat((List<Transaction> transactions) -> transactions.size() == 1));
+    }
+
+    /**
+     * Scenario: ALL_OR_NOTHING batch with a valid deposit and a withdraw larger than the usable balance.
+     * Expected: processBatch(...) applies nothing, marks the deposit as aborted
+     *           and inserts no transactions.
+     */
+    @Test
+    void processBatch_ShouldApplyNothing_InAllOrNothingModeWhenAnItemFails() {
+        // --- Arrange ---
+        BatchOperationRequest request = batchRequest(BatchMode.ALL_OR_NOTHING);
+        when(walletRepository.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(testWallet));
+
+        // --- Act ---
+        BatchOperationResponse response = walletService.processBatch(request);
+
+        // --- Assert ---
+        assertThat(response.getApplied()).isZero();
+        assertThat(response.getResults().get(0).getError()).isEqualTo("BATCH_ABORTED");
+
+        // --- Verify ---
+        verify(transactionRepository, never()).saveAll(any());
+    }
+
+    /**
+     * Scenario: Transfer (40.00) from wallet 2 to wallet 1.
+     * Expected: transfer(...) *succeeds*,
+     *           locks both wallets in ascending ID order with one query,
+     *           moves the amount, records a WITHDRAW and a DEPOSIT leg sharing a transfer ID
+     *           and counts the transfer once as approved.
+     */
+    @Test
+    void transfer_ShouldMoveMoneyAndRecordBothLegs() {
+        // --- Arrange ---
+        Wallet source = Wallet.builder()
+                .id(2L)
+                .currency(Currency.TRY)
+                .balance(10_000L)
+                .usableBalance(10_000L)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .build();
+        testWallet.setCurrency(Currency.TRY);
+
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(2L);
+        request.setToWalletId(1L);
+        request.setAmount(new BigDecimal("40.00"));
+
+        when(walletRepository.findAllByIdForUpdate(List.of(2L, 1L))).thenReturn(List.of(testWallet, source));
+
+        // --- Act ---
+        walletService.transfer(request);
+
+        // --- Assert ---
+        assertThat(source.getBalance()).isEqualTo(6_000L);
+        assertThat(testWallet.getBalance()).isEqualTo(14_000L);
+
+        ArgumentCaptor<List<Transaction>> legsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(legsCaptor.capture());
+        List<Transaction> legs = legsCaptor.getValue();
+        assertThat(legs).extracting(Transaction::getType)
+                .containsExactly(TransactionType.WITHDRAW, TransactionType.DEPOSIT);
+        assertThat(legs.get(0).getTransferId()).isNotNull().isEqualTo(legs.get(1).getTransferId());
+        assertThat(meterRegistry.get("wallet.transactions.approved").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("wallet.transactions.pending").counter().count()).isZero();
+    }
+
+    /**
+     * Scenario: A transfer of 1500.00, above the approval threshold, is made pending and then approved.
+     *
+     * Expected outcome:
+     *  • The transfer counts once in the pending operation counter.
+     *  • The transaction statistics count both legs as pending, then both as approved,
+     *    matching the two rows written and decided.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void transfer_ShouldCountEachLegInStatistics_WhenPendingTransferIsApproved() {
+        // --- Arrange ---
+        Wallet source = Wallet.builder()
+                .id(2L)
+                .currency(Currency.TRY)
+                .balance(200_000L)
+                .usableBalance(200_000L)
+                .activeForShopping(true)
+                .activeForWithdraw(true)
+                .build();
+        testWallet.setCurrency(Currency.TRY);
+
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(2L);
+        request.setToWalletId(1L);
+        request.setAmount(new BigDecimal("1500.00"));
+
+        when(walletRepository.findAllByIdForUpdate(List.of(2L, 1L))).thenReturn(List.of(testWallet, source));
+
+        // --- Act ---
+        walletService.transfer(request);
+
+        // --- Assert ---
+        ArgumentCaptor<List<Transaction>> legsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(legsCaptor.capture());
+        List<Transaction> legs = legsCaptor.getValue();
+        assertThat(legs).extracting(Transaction::getStatus)
+                .containsExactly(TransactionStatus.PENDING, TransactionStatus.PENDING);
+        assertThat(meterRegistry.get("wallet.transactions.pending").counter().count()).isEqualTo(1);
+        assertThat(walletStatistics.getTransactions(TransactionStatus.PENDING)).isEqualTo(2);
+
+        // --- Arrange ---
+        legs.get(0).setId(20L);
+        legs.get(1).setId(21L);
+        when(transactionRepository.findById(20L)).thenReturn(Optional.of(legs.get(0)));
+        when(transactionRepository.findByTransferId(legs.get(0).getTransferId())).thenReturn(legs);
+        ApproveTransactionRequest approval = new ApproveTransactionRequest();
+        approval.setTransactionId(20L);
+        approval.setStatus(TransactionStatus.APPROVED);
+
+        // --- Act ---
+        transactionService.approveTransaction(approval);
+
+        // --- Assert ---
+        assertThat(legs).extracting(Transaction::getStatus)
+                .containsExactly(TransactionStatus.APPROVED, TransactionStatus.APPROVED);
+        assertThat(walletStatistics.getTransactions(TransactionStatus.PENDING)).isZero();
+        assertThat(walletStatistics.getTransactions(TransactionStatus.APPROVED)).isEqualTo(2);
+        assertThat(walletStatistics.getTransactions()).isEqualTo(2);
+    }
+
+    /**
+     * Scenario: Ledger mode, withdraw (150.00) from a wallet whose row holds 100.00 usable
+     *           and whose unmaterialized postings add another 100.00.
+     * Expected: withdraw(...) *succeeds* because the postings count towards the usable balance,
+     *           appends a balanced entry (wallet available -150, settlement +150)
+     *           and leaves the wallet row untouched.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void withdraw_ShouldAppendBalancedPostings_WhenLedgerIsEnabled() {
+        // --- Arrange ---
+        ReflectionTestUtils.setField(walletLedger, "enabled", true);
+
+        WithdrawRequest request = new WithdrawRequest();
+        request.setWalletId(1L);
+        request.setAmount(new BigDecimal("150.00"));
+        request.setDestination("PAY12345");
+
+        when(walletRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(testWallet));
+        when(postingRepository.sumOutstanding(Set.of(1L)))
+                .thenReturn(List.of(outstanding(1L, LedgerAccount.WALLET_AVAILABLE, "100.00")));
+
+        // --- Act ---
+        walletService.withdraw(request);
+
+        // --- Assert ---
+        assertThat(testWallet.getBalance()).isEqualTo(10_000L);
+        assertThat(testWallet.getUsableBalance()).isEqualTo(10_000L);
+
+        ArgumentCaptor<List<Posting>> postingsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(postingRepository).saveAll(postingsCaptor.capture());
+        List<Posting> postings = postingsCaptor.getValue();
+        assertThat(postings).extracting(Posting::getAccount)
+                .containsExactly(LedgerAccount.WALLET_AVAILABLE, LedgerAccount.SETTLEMENT);
+        assertThat(postings).extracting(Posting::getAmount).containsExactly(-15_000L, 15_000L);
+
+        // --- Verify ---
+        verify(walletRepository, never()).save(any());
+    }
+
+    private PostingRepository.OutstandingTotal outstanding(Long walletId, LedgerAccount account, String amount) {
+        return new PostingRepository.OutstandingTotal() {
+            public Long getWalletId() { return walletId; }
+            public LedgerAccount getAccount() { return account; }
+            public BigDecimal getAmount() { return new BigDecimal(amount); }
+        };
+    }
+
+    private WalletRepository.WalletRevision revision(Long walletId, Long customerId, Long version) {
+        return new WalletRepository.WalletRevision() {
+            public Long getId() { return walletId; }
+            public Long getCustomerId() { return customerId; }
+            public Currency getCurrency() { return Currency.TRY; }
+            public Integer getStripeCount() { return 0; }
+            public Long getVersion() { return version; }
+        };
+    }
+
+    private BatchOperationRequest batchRequest(BatchMode mode) {
+        DepositRequest deposit = new DepositRequest();
+        deposit.setWalletId(1L);
+        deposit.setAmount(new BigDecimal("50.00"));
+        deposit.setSource("PAY12345");
+
+        WithdrawRequest withdraw = new WithdrawRequest();
+        withdraw.setWalletId(1L);
+        withdraw.setAmount(new BigDecimal("500.00"));
+        withdraw.setDestination("PAY12345");
+
+        BatchOperationRequest request = new BatchOperationRequest();
+        request.setMode(mode);
+        request.setDeposits(List.of(deposit));
+        request.setWithdrawals(List.of(withdraw));
+        return request;
+    }
+
+    /**
+     * Scenario: A wallet is read twice, then receives a deposit, then is read again.
+     * Expected: the second read is served from the wallet cache without a query,
+     *           and the deposit evicts the snapshot so the third read sees the new balance.
+     */
+    @Test
+    void getWallet_ShouldServeRepeatReadsFromCache_UntilTheWalletChanges() {
+        // --- Arrange ---
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(testWallet));
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testWallet));
+        DepositRequest request = new DepositRequest();
+        request.setWalletId(1L);
+        request.setAmount(new BigDecimal("500.00"));
+        request.setSource("PAY12345");
+
+        // --- Act & Assert ---
+        assertThat(walletService.getWallet(1L, 1L).getBalance()).isEqualTo(10_000L);
+        assertThat(walletService.getWallet(1L, 1L).getBalance()).isEqualTo(10_000L);
+        verify(walletRepository, times(1)).findById(1L);
+
+        walletService.deposit(request);
+
+        assertThat(walletService.getWallet(1L, 1L).getBalance()).isEqualTo(60_000L);
+        verify(walletRepository, times(2)).findById(1L);
+        assertThatThrownBy(() -> walletService.getWallet(1L, 2L)).isInstanceOf(WalletNotFoundException.class);
+    }
+
+    /**
+     * Scenario: Ledger mode, a wallet missing from the cache is read while it has 100.00 in unmaterialized postings.
+     * Expected: the row and the outstanding sum are read inside one read-only, repeatable-read
+     *           transaction, so a materialization committing in between cannot skew the snapshot.
+     */
+    @Test
+    void getWallet_ShouldReadRowAndOutstandingSumInOneTransaction() {
+        // --- Arrange ---
+        ReflectionTestUtils.setField(walletLedger, "enabled", true);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(testWallet));
+        when(postingRepository.sumOutstanding(Set.of(1L)))
+                .thenReturn(List.of(outstanding(1L, LedgerAccount.WALLET_AVAILABLE, "100.00")));
+
+        // --- Act ---
+        Wallet wallet = walletService.getWallet(1L, 1L);
+
+        // --- Assert ---
+        assertThat(wallet.getOutstandingBalance()).isEqualTo(10_000L);
+        assertThat(wallet.getOutstandingUsableBalance()).isEqualTo(10_000L);
+
+        // --- Verify ---
+        InOrder inOrder = inOrder(transactionManager, walletRepository, postingRepository);
+        inOrder.verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        inOrder.verify(walletRepository).findById(1L);
+        inOrder.verify(postingRepository).sumOutstanding(Set.of(1L));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    /**
+     * Scenario: A wallet cached at version 1 is revalidated twice: once while the row is
+     *           still at version 1, and once after another instance moved it to version 2.
+     *
+     * Expected outcome:
+     *  • Each revision is read from the database, and carries the row's current version.
+     *  • A matching revision keeps the cached snapshot; a newer one evicts it, so the
+     *    next getWallet reloads the wallet instead of serving a body older than the ETag.
+     *  • Another customer's wallet is reported as not found.
+     */
+    @Test
+    void getWalletRevision_ShouldEvictCachedSnapshotOlderThanDatabase() {
+        // --- Arrange ---
+        testWallet.setVersion(1L);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(testWallet));
+        when(walletRepository.findRevisionById(1L))
+                .thenReturn(Optional.of(revision(1L, 1L, 1L)), Optional.of(revision(1L, 1L, 2L)));
+        walletService.getWallet(1L, 1L);
+
+        // --- Act & Assert ---
+        assertThat(walletService.getWalletRevision(1L, 1L).getVersion()).isEqualTo(1L);
+        walletService.getWallet(1L, 1L);
+        verify(walletRepository, times(1)).findById(1L);
+
+        assertThat(walletService.getWalletRevision(1L, 1L).getVersion()).isEqualTo(2L);
+        walletService.getWallet(1L, 1L);
+        verify(walletRepository, times(2)).findById(1L);
+
+        assertThatThrownBy(() -> walletService.getWalletRevision(1L, 2L))
+                .isInstanceOf(WalletNotFoundException.class);
+    }
+
+    /**
+     * Scenario: In ATOMIC mode a withdraw of 150.00 is rejected by the conditional UPDATE
+     *           (0 rows updated) because the wallet holds only 100.00.
+     * Expected: withdraw(...) reads the wallet once to explain the rejection, throws
+     *           {@link InsufficientBalanceException} and saves no {@link Transaction}.
+     */
+    @Test
+    void withdraw_ShouldThrowInsufficientBalance_WhenAtomicUpdateMatchesNoRow() {
+        // --- Arrange ---
+        useConcurrencyMode(WalletConcurrencyMode.ATOMIC);
+        WithdrawRequest request = new WithdrawRequest();
+        request.setWalletId(1L);
+        request.setAmount(new BigDecimal("150.00"));
+        request.setDestination("TR000000000000000000000001");
+
+        when(walletRepository.debitForWithdraw(1L, 15_000L, 15_000L)).thenReturn(0);
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(testWallet));
+
+        // --- Act & Assert ---
+        assertThatThrownBy(() -> walletService.withdraw(request))
+                .isInstanceOf(InsufficientBalanceException.class)
+                .hasMessageContaining("Requested: 150.00, Available: 100.00");
+
+        // --- Verify ---
+        verify(walletRepository, never()).findByIdForUpdate(anyLong());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    /**
+     * Scenario: In ATOMIC mode a deposit of 500.00 and a card payment of 50.00 are accepted by their UPDATEs.
+     * Expected: the amounts are passed in minor units to credit(...) and debitForShopping(...),
+     *           the wallet is never loaded, and an APPROVED {@link Transaction} is saved for each.
+     */
+    @Test
+    void depositAndWithdraw_ShouldUseConditionalUpdates_InAtomicMode() {
+        // --- Arrange ---
+        useConcurrencyMode(WalletConcurrencyMode.ATOMIC);
+        DepositRequest deposit = new DepositRequest();
+        deposit.setWalletId(1L);
+        deposit.setAmount(new BigDecimal("500.00"));
+        deposit.setSource("TR000000000000000000000001");
+        WithdrawRequest payment = new WithdrawRequest();
+        payment.setWalletId(1L);
+        payment.setAmount(new BigDecimal("50.00"));
+        payment.setDestination("PAY12345");
+
+        when(walletRepository.credit(1L, 50_000L, 50_000L)).thenReturn(1);
+        when(walletRepository.debitForShopping(1L, 5_000L, 5_000L)).thenReturn(1);
+
+        // --- Act ---
+        walletService.deposit(deposit);
+        walletService.withdraw(payment);
+
+        // --- Assert ---
+        verify(transactionRepository, times(2)).save(transactionCaptor.capture());
+        assertThat(transactionCaptor.getAllValues())
+                .extracting(Transaction::getType, Transaction::getAmount, Transaction::getStatus)
+                .containsExactly(
+                        tuple(TransactionType.DEPOSIT, 50_000L, TransactionStatus.APPROVED),
+                        tuple(TransactionType.WITHDRAW, 5_000L, TransactionStatus.APPROVED));
+        verify(walletRepository, never()).findById(anyLong());
+        verify(walletRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    /**
+     * Scenario: OPTIMISTIC mode, an approved deposit of 50.00 whose first attempt hits a
+     *           version conflict at save and is rolled back, and whose second attempt commits.
+     * Expected: the deposit is counted once as approved, in the operation counter and in the
+     *           statistics, because counting waits for the commit of the attempt.
+     */
+    @Test
+    void deposit_ShouldCountOnlyTheCommittedAttempt_WhenVersionConflictIsRetried() {
+        // --- Arrange ---
+        useConcurrencyMode(WalletConcurrencyMode.OPTIMISTIC);
+        Object writeExecutor = ReflectionTestUtils.getField(walletService, "writeExecutor");
+        ReflectionTestUtils.setField(writeExecutor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(writeExecutor, "transactionTemplate",
+                new TransactionTemplate(new SynchronizingTransactionManager()));
+
+        DepositRequest request = new DepositRequest();
+        request.setWalletId(1L);
+        request.setAmount(new BigDecimal("50.00"));
+        request.setSource("TR000000000000000000000001");
+
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(testWallet));
+        when(walletRepository.save(testWallet))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Wallet.class, 1L))
+                .thenReturn(testWallet);
+
+        // --- Act ---
+        walletService.deposit(request);
+
+        // --- Assert ---
+        verify(walletRepository, times(2)).save(testWallet);
+        assertThat(meterRegistry.get("wallet.transactions.approved").counter().count()).isEqualTo(1);
+        assertThat(walletStatistics.getTransactions(TransactionStatus.APPROVED)).isEqualTo(1);
+    }
+
+    /**
+     * Transaction manager without a resource, which runs the synchronizations of the
+     * transactions it commits and discards those of the ones it rolls back
+     */
+    private static class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
     }
 
+    private void useConcurrencyMode(WalletConcurrencyMode mode) {
+        Object writeExecutor = ReflectionTestUtils.getField(walletService, "writeExecutor");
+        ReflectionTestUtils.setField(writeExecutor, "concurrencyMode", mode);
+    }
 }
@@ -0,0 +1,167 @@
+package com.digitalwallet.walletapi.write;
+
+import com.digitalwallet.walletapi.exception.InsufficientBalanceException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitLaneTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GroupCommitLane lane;
+    private final List<String> applied = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lane = new GroupCommitLane("test-lane", new TransactionTemplate(transactionManager), 64, 50, 100,
+                DistributionSummary.builder("batch.size").register(meterRegistry),
+                Timer.builder("commit").register(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        lane.stop();
+    }
+
+    /**
+     * Scenario: Writes for three wallets are queued before the lane starts.
+     *
+     * Expected outcome:
+     *  • They are applied in one transaction, in ascending wallet ID order.
+     *  • Two writes to the same wallet keep their arrival order.
+     */
+    @Test
+    @DisplayName("commit should apply a batch in one transaction, ordered by wallet ID")
+    void commit_ShouldApplyBatchInWalletOrder() throws Exception {
+        // --- Arrange ---
+        List<PendingWrite<String>> writes = List.of(
+                write(3L, "a"), write(1L, "b"), write(3L, "c"), write(2L, "d"));
+        writes.forEach(write -> assertThat(lane.submit(write, 100)).isTrue());
+
+        // --- Act ---
+        lane.start();
+
+        // --- Assert ---
+        for (PendingWrite<String> write : writes) {
+            write.future().get(5, TimeUnit.SECONDS);
+        }
+        assertThat(applied).containsExactly("b", "d", "a", "c");
+        assertThat(writes.get(0).future().get()).isEqualTo("a");
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertThat(meterRegistry.get("batch.size").summary().max()).isEqualTo(4);
+    }
+
+    /**
+     * Scenario: The commit of a batch fails.
+     * Expected: every write is retried in its own transaction and its caller completes normally.
+     */
+    @Test
+    @DisplayName("commit should fall back to one transaction per write when the batch commit fails")
+    void commit_ShouldRetryWritesAloneWhenBatchCommitFails() throws Exception {
+        // --- Arrange ---
+        doThrow(new TransactionSystemException("commit failed")).doNothing().when(transactionManager).commit(any());
+        List<PendingWrite<String>> writes = List.of(write(1L, "a"), write(2L, "b"));
+        writes.forEach(write -> lane.submit(write, 100));
+
+        // --- Act ---
+        lane.start();
+
+        // --- Assert ---
+        assertThat(writes.get(0).future().get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(writes.get(1).future().get(5, TimeUnit.SECONDS)).isEqualTo("b");
+        assertThat(applied).containsExactly("a", "b", "a", "b");
+        verify(transactionManager, times(3)).getTransaction(any());
+    }
+
+    /**
+     * Scenario: One write of a batch fails with an unexpected error and another is rejected by a business rule.
+     *
+     * Expected outcome:
+     *  • The failing write's caller gets its error after the write is retried alone.
+     *  • The rejected write's caller gets the business error.
+     *  • The remaining write still succeeds.
+     */
+    @Test
+    @DisplayName("commit should fail only the callers whose writes failed")
+    void commit_ShouldPropagateFailuresToTheirOwnCallers() throws Exception {
+        // --- Arrange ---
+        PendingWrite<String> failing = new PendingWrite<>(1L, () -> {
+            throw new IllegalStateException("boom");
+        });
+        PendingWrite<String> rejected = new PendingWrite<>(2L, () -> {
+            throw new InsufficientBalanceException(BigDecimal.TEN, BigDecimal.ONE);
+        });
+        PendingWrite<String> fine = write(3L, "c");
+        List.of(failing, rejected, fine).forEach(write -> lane.submit(write, 100));
+
+        // --- Act ---
+        lane.start();
+
+        // --- Assert ---
+        assertThat(fine.future().get(5, TimeUnit.SECONDS)).isEqualTo("c");
+        assertThatThrownBy(() -> failing.future().get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("boom");
+        assertThatThrownBy(() -> rejected.future().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(InsufficientBalanceException.class);
+        verify(transactionManager, atLeastOnce()).rollback(any());
+    }
+
+    /**
+     * Scenario: A caller gives up on its write before the lane reaches it.
+     * Expected: the write is never applied; the writes around it are.
+     */
+    @Test
+    @DisplayName("commit should skip writes abandoned by their callers")
+    void commit_ShouldSkipAbandonedWrites() throws Exception {
+        // --- Arrange ---
+        PendingWrite<String> abandoned = write(1L, "a");
+        PendingWrite<String> kept = write(2L, "b");
+        lane.submit(abandoned, 100);
+        lane.submit(kept, 100);
+        assertThat(abandoned.abandon()).isTrue();
+
+        // --- Act ---
+        lane.start();
+
+        // --- Assert ---
+        assertThat(kept.future().get(5, TimeUnit.SECONDS)).isEqualTo("b");
+        assertThat(applied).containsExactly("b");
+    }
+
+    private PendingWrite<String> write(Long walletId, String name) {
+        return new PendingWrite<>(walletId, () -> {
+            applied.add(name);
+            return name;
+        });
+    }
+}
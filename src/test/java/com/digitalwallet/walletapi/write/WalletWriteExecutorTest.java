@@ -0,0 +1,202 @@
+package com.digitalwallet.walletapi.write;
+
+import com.digitalwallet.walletapi.entity.Wallet;
+import com.digitalwallet.walletapi.exception.ConcurrentWalletUpdateException;
+import com.digitalwallet.walletapi.exception.WalletNotFoundException;
+import com.digitalwallet.walletapi.exception.WalletWriteTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class WalletWriteExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WalletWriteExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new WalletWriteExecutor(new TransactionTemplate(transactionManager), meterRegistry);
+        ReflectionTestUtils.setField(executor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(executor, "backoffMs", 1L);
+        ReflectionTestUtils.setField(executor, "maxBackoffMs", 2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.stop();
+    }
+
+    /**
+     * Scenario: A write hits a version conflict on its first two attempts and succeeds on the third.
+     * Expected: the caller gets the result; two conflicts and two retries are counted, nothing is exhausted.
+     */
+    @Test
+    @DisplayName("execute should re-run a write after a version conflict")
+    void execute_ShouldRetryVersionConflicts() {
+        // --- Arrange ---
+        AtomicInteger attempts = new AtomicInteger();
+
+        // --- Act ---
+        String result = executor.execute(1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Wallet.class, 1L);
+            }
+            return "done";
+        });
+
+        // --- Assert ---
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+        assertThat(counter("wallet.write.optimistic.conflicts")).isEqualTo(2);
+        assertThat(counter("wallet.write.optimistic.retries")).isEqualTo(2);
+        assertThat(counter("wallet.write.optimistic.exhausted")).isZero();
+    }
+
+    /**
+     * Scenario: Every attempt of a write hits a version conflict.
+     *
+     * Expected outcome:
+     *  • The write runs max-attempts times, then fails with CONCURRENT_UPDATE caused by the last conflict.
+     *  • Every conflict is counted, every attempt but the last is counted as a retry, and one write is exhausted.
+     */
+    @Test
+    @DisplayName("executeUnbatched should give up after the last attempt")
+    void executeUnbatched_ShouldGiveUpAfterMaxAttempts() {
+        // --- Arrange ---
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<Object> conflicting = () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("version changed");
+        };
+
+        // --- Act & Assert ---
+        assertThatThrownBy(() -> executor.executeUnbatched(conflicting))
+                .isInstanceOf(ConcurrentWalletUpdateException.class)
+                .hasFieldOrPropertyWithValue("errorCode", "CONCURRENT_UPDATE")
+                .hasMessageContaining("gave up after 3 attempts")
+                .hasCauseInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(counter("wallet.write.optimistic.conflicts")).isEqualTo(3);
+        assertThat(counter("wallet.write.optimistic.retries")).isEqualTo(2);
+        assertThat(counter("wallet.write.optimistic.exhausted")).isEqualTo(1);
+    }
+
+    /**
+     * Scenario: A write fails with an error other than a version conflict.
+     * Expected: it is not retried and no conflict is counted.
+     */
+    @Test
+    @DisplayName("execute should not retry other failures")
+    void execute_ShouldNotRetryOtherFailures() {
+        // --- Arrange ---
+        AtomicInteger attempts = new AtomicInteger();
+        Supplier<Object> missing = () -> {
+            attempts.incrementAndGet();
+            throw new WalletNotFoundException(1L);
+        };
+
+        // --- Act & Assert ---
+        assertThatThrownBy(() -> executor.execute(1L, missing)).isInstanceOf(WalletNotFoundException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(counter("wallet.write.optimistic.conflicts")).isZero();
+    }
+
+    /**
+     * Scenario: The backoff cap is computed for growing attempt numbers.
+     * Expected: it starts at the base backoff, doubles per attempt, stops at the maximum and never overflows.
+     */
+    @Test
+    @DisplayName("backoffCap should double per attempt up to the maximum")
+    void backoffCap_ShouldGrowExponentiallyUpToTheMaximum() {
+        // --- Arrange ---
+        ReflectionTestUtils.setField(executor, "backoffMs", 5L);
+        ReflectionTestUtils.setField(executor, "maxBackoffMs", 100L);
+
+        // --- Act & Assert ---
+        assertThat(executor.backoffCap(1)).isEqualTo(5);
+        assertThat(executor.backoffCap(2)).isEqualTo(10);
+        assertThat(executor.backoffCap(3)).isEqualTo(20);
+        assertThat(executor.backoffCap(5)).isEqualTo(80);
+        assertThat(executor.backoffCap(6)).isEqualTo(100);
+        assertThat(executor.backoffCap(1000)).isEqualTo(100);
+    }
+
+    /**
+     * Scenario: With group commit on, the only lane is stuck inside a write while another write waits behind it.
+     *
+     * Expected outcome:
+     *  • The waiting caller gives up after the await timeout with a WRITE_TIMEOUT error,
+     *    and its write is never applied, even once the lane recovers.
+     *  • The caller of the stuck write, which had already started, is told its outcome is unknown.
+     */
+    @Test
+    @DisplayName("execute should give up on writes a stalled lane has not started")
+    void execute_ShouldTimeOutWhenLaneStalls() throws Exception {
+        // --- Arrange ---
+        ReflectionTestUtils.setField(executor, "groupCommitEnabled", true);
+        ReflectionTestUtils.setField(executor, "laneCount", 1);
+        ReflectionTestUtils.setField(executor, "maxBatchSize", 1);
+        ReflectionTestUtils.setField(executor, "maxWaitMs", 0L);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 10);
+        ReflectionTestUtils.setField(executor, "awaitTimeoutMs", 200L);
+        executor.start();
+
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> stuck = CompletableFuture.supplyAsync(() -> executor.execute(1L, () -> {
+            stalled.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicBoolean applied = new AtomicBoolean();
+
+        // --- Act & Assert ---
+        assertThatThrownBy(() -> executor.execute(2L, () -> applied.set(true)))
+                .isInstanceOf(WalletWriteTimeoutException.class)
+                .hasFieldOrPropertyWithValue("errorCode", "WRITE_TIMEOUT");
+
+        assertThatThrownBy(() -> stuck.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("outcome is unknown");
+
+        release.countDown();
+        assertThat(executor.execute(3L, () -> "after")).isEqualTo("after");
+        assertThat(applied).isFalse();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}